@@ -9,6 +9,8 @@ mkdir -p build/classes
 find src -name "*.java" -print0 | xargs -0 javac -d build/classes
 
 if [ $? -eq 0 ]; then
+    # Copy piece images so they can be loaded from the classpath
+    cp -r src/resources build/classes/
     echo "Build successful!"
     echo "Running Chess Game..."
     java -cp build/classes main.Main
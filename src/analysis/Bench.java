@@ -0,0 +1,176 @@
+package analysis;
+
+import board.Board;
+import board.Fen;
+import engine.Evaluator;
+import engine.Search;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+import game.SavedGame;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A fixed, repeatable workload for comparing builds and machines. Every
+ * position is perft-counted to a fixed depth and then searched to a fixed
+ * depth on one thread, starting from an empty hash table. The node totals
+ * therefore depend only on the code, not on the machine, and serve as a
+ * signature. A change in the signature means search or move generation
+ * behaviour changed; a change in nodes per second on the same signature
+ * is purely a speed difference.
+ *
+ * The positions are the embedded list below plus every position reached
+ * in the saved games of the given directory.
+ *
+ * @author Abheek Pradhan
+ */
+public class Bench {
+    public static final int DEFAULT_SEARCH_DEPTH = 5;
+    public static final int DEFAULT_PERFT_DEPTH = 3;
+    public static final String DEFAULT_GAMES_DIR = "savedGameState";
+
+    // Middlegames and endgames chosen to exercise every piece type
+    private static final String[] POSITIONS = {
+        Fen.START_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w - - 4 4",
+        "2rq1rk1/pp1bppbp/2np1np1/8/3NP3/1BN1BP2/PPPQ2PP/2KR3R b - - 0 11",
+        "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+        "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+        "8/5pk1/6p1/8/2Q5/6P1/5PK1/3q4 b - - 0 1",
+        "4r1k1/pp3ppp/2p5/8/3n4/2N5/PPP2PPP/4R1K1 w - - 0 1",
+    };
+
+    private final int searchDepth;
+    private final int perftDepth;
+    private final String gamesDirectory;
+    private final PrintStream out;
+
+    public Bench(int searchDepth, int perftDepth, String gamesDirectory, PrintStream out) {
+        this.searchDepth = searchDepth;
+        this.perftDepth = perftDepth;
+        this.gamesDirectory = gamesDirectory;
+        this.out = out;
+    }
+
+    /**
+     * Runs the workload and prints one line per position followed by the
+     * totals.
+     *
+     * @return The search node signature
+     */
+    public long run() {
+        List<Board> boards = new ArrayList<>();
+        List<String> sides = new ArrayList<>();
+        for (String fen : POSITIONS) {
+            Board board = Board.empty();
+            sides.add(Fen.load(board, fen));
+            boards.add(board);
+        }
+        addSavedGames(boards, sides);
+
+        Search search = new Search(new TranspositionTable(16), new Evaluator());
+        SearchLimits limits = SearchLimits.depth(searchDepth);
+        int[][] moveBuffers = new int[perftDepth + 1][256];
+        long perftNodes = 0;
+        long searchNodes = 0;
+        long perftNanos = 0;
+        long searchNanos = 0;
+
+        for (int i = 0; i < boards.size(); i++) {
+            Board board = boards.get(i);
+            String side = sides.get(i);
+
+            long started = System.nanoTime();
+            long perft = perft(board, side, perftDepth, moveBuffers);
+            perftNanos += System.nanoTime() - started;
+
+            search.getTranspositionTable().clear();
+            started = System.nanoTime();
+            search.search(board, side, limits, null);
+            searchNanos += System.nanoTime() - started;
+            long nodes = search.getNodes();
+
+            perftNodes += perft;
+            searchNodes += nodes;
+            out.printf("Position %3d/%d: perft %,d, search %,d nodes  %s%n",
+                i + 1, boards.size(), perft, nodes, Fen.toFen(board, side));
+        }
+
+        out.println("===========================");
+        out.printf("Perft nodes     : %d (%,d nps)%n", perftNodes, perSecond(perftNodes, perftNanos));
+        out.printf("Total time (ms) : %d%n", (perftNanos + searchNanos) / 1_000_000L);
+        out.printf("Nodes searched  : %d%n", searchNodes);
+        out.printf("Nodes/second    : %d%n", perSecond(searchNodes, searchNanos));
+        return searchNodes;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree to the given depth.
+     */
+    static long perft(Board board, String side, int depth, int[][] moveBuffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[depth];
+        int count = board.generateMoves(side, moves);
+        if (depth == 1) {
+            return count;
+        }
+        String opponent = side.equals("white") ? "black" : "white";
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, opponent, depth - 1, moveBuffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Adds every position reached in each saved game, plus the game's
+     * own saved board if it has one. Files are visited in name order so
+     * the workload is the same everywhere.
+     */
+    private void addSavedGames(List<Board> boards, List<String> sides) {
+        File[] files = new File(gamesDirectory).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            out.println("No saved games found in " + gamesDirectory);
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            try {
+                SavedGame game = SavedGame.read(file.getPath());
+                List<Board> positions = game.replay();
+                for (int ply = 0; ply < positions.size(); ply++) {
+                    boards.add(positions.get(ply));
+                    sides.add(ply % 2 == 0 ? "black" : "white");
+                }
+                // The saved board usually repeats the final position; only add it when it differs
+                Board saved = game.getSavedBoard();
+                boolean differs = positions.isEmpty()
+                    || saved != null && saved.getPositionKey() != positions.get(positions.size() - 1).getPositionKey();
+                if (saved != null && differs && Long.bitCount(saved.getBitboard(Board.KING, "white")) == 1
+                        && Long.bitCount(saved.getBitboard(Board.KING, "black")) == 1) {
+                    boards.add(saved);
+                    sides.add(game.getSideToMove());
+                }
+            } catch (IOException | RuntimeException e) {
+                out.println("Skipping " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static long perSecond(long nodes, long nanos) {
+        return nanos > 0 ? nodes * 1_000_000_000L / nanos : 0;
+    }
+}
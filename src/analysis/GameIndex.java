@@ -0,0 +1,421 @@
+package analysis;
+
+import board.Board;
+import board.Move;
+import engine.AnalysisCache;
+import game.SavedGame;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of every position reached in a directory of saved games,
+ * answering "which games reached this position, and what was played
+ * next" with a binary search.
+ *
+ * The index file holds a table of the indexed games (file name, size and
+ * modification time) followed by one 16-byte entry per position: the
+ * position key with the side to move, as used by {@link AnalysisCache},
+ * then the game, the ply and the move played from there. Entries are
+ * sorted by key, and the file is mapped into memory for lookups.
+ *
+ * Rebuilding is incremental. Games whose file is unchanged keep their
+ * entries, which are already sorted; only new or modified games are
+ * replayed, and the two sorted runs are merged into the new file. The
+ * old file is read onto the heap for this rather than mapped, since the
+ * new one replaces it and Windows will not replace a mapped file.
+ *
+ * @author Abheek Pradhan
+ */
+public class GameIndex {
+    public static final String DEFAULT_PATH = "games.idx";
+
+    private static final int MAGIC = 0x5844494A;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 16;
+
+    // Mapped for lookups, or on the heap while the file is being replaced
+    private final ByteBuffer data;
+    private final List<GameFile> games;
+    private final int entriesOffset;
+    private final int entryCount;
+
+    /**
+     * One occurrence of a position in a game.
+     */
+    public static class Occurrence {
+        private final String gameName;
+        private final int ply;
+        private final int nextMove;
+
+        Occurrence(String gameName, int ply, int nextMove) {
+            this.gameName = gameName;
+            this.ply = ply;
+            this.nextMove = nextMove;
+        }
+
+        /**
+         * Returns the file name of the game, relative to its directory.
+         */
+        public String getGameName() {
+            return gameName;
+        }
+
+        /**
+         * Returns how many moves had been played to reach the position.
+         */
+        public int getPly() {
+            return ply;
+        }
+
+        /**
+         * Returns the move played from the position, or {@link Move#NONE}
+         * if the game ended there.
+         */
+        public int getNextMove() {
+            return nextMove;
+        }
+
+        @Override
+        public String toString() {
+            return gameName + " ply " + ply + " next "
+                + (nextMove == Move.NONE ? "(end)" : Move.toUci(nextMove));
+        }
+    }
+
+    /**
+     * A game file as it was when indexed.
+     */
+    private static class GameFile {
+        final String name;
+        final long size;
+        final long modified;
+
+        GameFile(String name, long size, long modified) {
+            this.name = name;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        boolean matches(File file) {
+            return file.length() == size && file.lastModified() == modified;
+        }
+    }
+
+    private GameIndex(ByteBuffer data) {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " game index");
+        }
+        int gameCount = data.getInt(8);
+        entryCount = data.getInt(12);
+        games = new ArrayList<>(gameCount);
+        data.position(HEADER_BYTES);
+        for (int i = 0; i < gameCount; i++) {
+            byte[] name = new byte[data.getShort() & 0xFFFF];
+            data.get(name);
+            games.add(new GameFile(new String(name, StandardCharsets.UTF_8), data.getLong(), data.getLong()));
+        }
+        entriesOffset = data.position();
+        if (data.capacity() != entriesOffset + (long) entryCount * ENTRY_BYTES) {
+            throw new IllegalArgumentException("Game index is truncated");
+        }
+    }
+
+    /**
+     * Maps an index file for lookups.
+     *
+     * @throws IllegalArgumentException If the file is not an index
+     */
+    public static GameIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            return new GameIndex(data);
+        }
+    }
+
+    /**
+     * Reads a whole index file onto the heap, leaving nothing mapped.
+     *
+     * @throws IllegalArgumentException If the file is not an index
+     */
+    private static GameIndex read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Game index is too large");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            data.flip();
+            return new GameIndex(data);
+        }
+    }
+
+    /**
+     * Brings the index file up to date with the games directory, reusing
+     * the entries of unchanged games from the existing index if there is
+     * one. Open the file afterwards for lookups.
+     *
+     * @param log Receives one line describing what was done
+     * @return The number of positions indexed
+     */
+    public static int update(Path gamesDirectory, Path indexPath, PrintStream log) throws IOException {
+        File[] files = gamesDirectory.toFile().listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            throw new IOException("No games directory " + gamesDirectory);
+        }
+        Arrays.sort(files);
+
+        GameIndex previous = null;
+        if (Files.exists(indexPath)) {
+            try {
+                previous = read(indexPath);
+            } catch (IllegalArgumentException e) {
+                log.println("Rebuilding unreadable index: " + e.getMessage());
+            }
+        }
+        Map<String, Integer> previousIds = new HashMap<>();
+        if (previous != null) {
+            for (int i = 0; i < previous.games.size(); i++) {
+                previousIds.put(previous.games.get(i).name, i);
+            }
+        }
+
+        // Unchanged games keep their entries under a new id; the rest are replayed
+        List<GameFile> games = new ArrayList<>();
+        int[] newIds = new int[previous != null ? previous.games.size() : 0];
+        Arrays.fill(newIds, -1);
+        EntryList fresh = new EntryList();
+        int reused = 0;
+        int replayed = 0;
+        int skipped = 0;
+        for (File file : files) {
+            Integer oldId = previousIds.get(file.getName());
+            GameFile game = new GameFile(file.getName(), file.length(), file.lastModified());
+            if (oldId != null && previous.games.get(oldId).matches(file)) {
+                newIds[oldId] = games.size();
+                games.add(game);
+                reused++;
+                continue;
+            }
+            try {
+                int[] moves = SavedGame.read(file.getPath()).getMoves();
+                addPositions(fresh, games.size(), moves);
+                games.add(game);
+                replayed++;
+            } catch (IOException | RuntimeException e) {
+                log.println("Skipping " + file + ": " + e.getMessage());
+                skipped++;
+            }
+        }
+        fresh.sort();
+
+        Path temporary = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        int entries = write(temporary, games, previous, newIds, fresh);
+        Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.printf("Indexed %d positions from %d games (%d unchanged, %d replayed, %d skipped) in %s%n",
+            entries, games.size(), reused, replayed, skipped, indexPath);
+        return entries;
+    }
+
+    /**
+     * Returns every occurrence of the position in the indexed games, in
+     * game order.
+     */
+    public List<Occurrence> find(Board board, String sideToMove) {
+        long key = AnalysisCache.key(board, sideToMove);
+        List<Occurrence> found = new ArrayList<>();
+        for (int i = lowerBound(key); i < entryCount && keyAt(i) == key; i++) {
+            int offset = entriesOffset + i * ENTRY_BYTES;
+            found.add(new Occurrence(games.get(gameAt(i)).name,
+                                     data.getShort(offset + 12) & 0xFFFF,
+                                     data.getShort(offset + 14) & 0xFFFF));
+        }
+        found.sort((a, b) -> a.getGameName().equals(b.getGameName())
+            ? Integer.compare(a.getPly(), b.getPly()) : a.getGameName().compareTo(b.getGameName()));
+        return found;
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    public int getPositionCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the first entry whose key is not below the given one.
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int entry) {
+        return data.getLong(entriesOffset + entry * ENTRY_BYTES);
+    }
+
+    private int gameAt(int entry) {
+        return data.getInt(entriesOffset + entry * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Replays a game's moves from the starting position, adding the
+     * position before each move and the final one, and stopping at the
+     * first illegal move as {@link SavedGame#replay()} does.
+     */
+    private static void addPositions(EntryList entries, int game, int[] moves) {
+        Board board = new Board();
+        String side = "white";
+        int[] legal = new int[256];
+        for (int ply = 0; ply <= moves.length; ply++) {
+            int next = Move.NONE;
+            if (ply < moves.length) {
+                int count = board.generateMoves(side, legal);
+                for (int i = 0; i < count && next == Move.NONE; i++) {
+                    if (legal[i] == moves[ply]) {
+                        next = moves[ply];
+                    }
+                }
+            }
+            entries.add(AnalysisCache.key(board, side), game, ply, next);
+            if (next == Move.NONE) {
+                break;
+            }
+            board.makeMove(next);
+            side = side.equals("white") ? "black" : "white";
+        }
+    }
+
+    /**
+     * Writes the game table and the merged entries: the unchanged games'
+     * entries from the previous index, renumbered, and the fresh ones.
+     *
+     * @return The number of entries written
+     */
+    private static int write(Path path, List<GameFile> games, GameIndex previous, int[] newIds,
+                             EntryList fresh) throws IOException {
+        int oldCount = previous != null ? previous.entryCount : 0;
+        int kept = 0;
+        for (int i = 0; i < oldCount; i++) {
+            if (newIds[previous.gameAt(i)] >= 0) {
+                kept++;
+            }
+        }
+        int total = kept + fresh.size;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(games.size()).putInt(total);
+            out.write(header.array());
+            for (GameFile game : games) {
+                byte[] name = game.name.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = ByteBuffer.allocate(2 + name.length + 16).order(ByteOrder.LITTLE_ENDIAN);
+                record.putShort((short) name.length).put(name).putLong(game.size).putLong(game.modified);
+                out.write(record.array());
+            }
+
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int oldIndex = 0;
+            int freshIndex = 0;
+            while (true) {
+                // Skip entries of games that changed or disappeared
+                while (oldIndex < oldCount && newIds[previous.gameAt(oldIndex)] < 0) {
+                    oldIndex++;
+                }
+                boolean oldLeft = oldIndex < oldCount;
+                boolean freshLeft = freshIndex < fresh.size;
+                if (!oldLeft && !freshLeft) {
+                    break;
+                }
+                entry.clear();
+                if (oldLeft && (!freshLeft
+                        || Long.compareUnsigned(previous.keyAt(oldIndex), fresh.keys[freshIndex]) <= 0)) {
+                    int offset = previous.entriesOffset + oldIndex * ENTRY_BYTES;
+                    entry.putLong(previous.keyAt(oldIndex))
+                         .putInt(newIds[previous.gameAt(oldIndex)])
+                         .putInt(previous.data.getInt(offset + 12));
+                    oldIndex++;
+                } else {
+                    long value = fresh.values[freshIndex];
+                    entry.putLong(fresh.keys[freshIndex])
+                         .putInt((int) (value >>> 32))
+                         .putInt((int) value);
+                    freshIndex++;
+                }
+                out.write(entry.array());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Entries of replayed games as parallel primitive arrays, sortable by
+     * key. The value packs the game in the high half and the ply and
+     * next move as two shorts in the low half, as in the file.
+     */
+    private static class EntryList {
+        long[] keys = new long[1024];
+        long[] values = new long[1024];
+        int size;
+
+        void add(long key, int game, int ply, int nextMove) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = (long) game << 32 | (ply & 0xFFFFL) | (nextMove & 0xFFFFL) << 16;
+            size++;
+        }
+
+        /**
+         * Sorts by unsigned key, keeping the order of equal keys.
+         */
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compareUnsigned(keys[a], keys[b]));
+            long[] sortedKeys = new long[size];
+            long[] sortedValues = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedValues[i] = values[order[i]];
+            }
+            keys = sortedKeys;
+            values = sortedValues;
+        }
+    }
+}
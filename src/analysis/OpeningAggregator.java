@@ -0,0 +1,381 @@
+package analysis;
+
+import board.Board;
+import board.Move;
+import engine.AnalysisCache;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds an {@link OpeningExplorer} file from a collection of games on
+ * all cores. Reading and splitting work as in {@link BatchAnalyzer}:
+ * chunks of lines are spread over a ForkJoinPool. Every pool thread
+ * replays its games into its own table of counts, so threads never
+ * share a counter; the tables are merged once all games are read.
+ *
+ * The input has one game per line: its moves in UCI notation from the
+ * starting position and its result as "1-0", "0-1" or "1/2-1/2".
+ * Anything else on the line, such as move numbers, is ignored. Games
+ * without a result are skipped, and a game is only followed up to its
+ * first illegal move.
+ *
+ * @author Abheek Pradhan
+ */
+public class OpeningAggregator {
+    public static final int DEFAULT_MAX_PLIES = 24;
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final int maxPlies;
+    private final ForkJoinPool pool;
+    private final List<Replayer> replayers = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Replayer> threadReplayers = ThreadLocal.withInitial(() -> {
+        Replayer replayer = new Replayer();
+        replayers.add(replayer);
+        return replayer;
+    });
+
+    /**
+     * @param maxPlies How many moves of each game to count
+     */
+    public OpeningAggregator(int maxPlies, int threads) {
+        this.maxPlies = maxPlies;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Counts the moves of every game in the input file and writes the
+     * explorer file, reporting progress on standard error as it goes.
+     *
+     * @return The number of games counted
+     */
+    public long run(String inputPath, String outputPath) throws IOException {
+        long start = System.nanoTime();
+        long processed = 0;
+        String[] lines = new String[CHUNK_SIZE];
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputPath), 1 << 16)) {
+            while (true) {
+                int count = 0;
+                String line;
+                while (count < CHUNK_SIZE && (line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        lines[count++] = line;
+                    }
+                }
+                if (count == 0) {
+                    break;
+                }
+
+                pool.invoke(new ReplayTask(lines, 0, count));
+                processed += count;
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.err.printf("%d games, %.0f/s%n", processed, processed / seconds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        MoveCounts merged = new MoveCounts();
+        long games = 0;
+        for (Replayer replayer : replayers) {
+            merged.addAll(replayer.counts);
+            games += replayer.games;
+        }
+        int positions = write(Paths.get(outputPath), merged, games);
+        System.err.printf("%d games, %d positions, %d moves in %.1fs%n", games,
+            positions, merged.size, (System.nanoTime() - start) / 1e9);
+        return games;
+    }
+
+    /**
+     * Writes the merged counts in the format {@link OpeningExplorer}
+     * reads: positions sorted by key and grouped into blocks, each key
+     * stored as its difference from the one before.
+     *
+     * @return The number of positions written
+     */
+    private int write(Path path, MoveCounts counts, long games) throws IOException {
+        int[] order = counts.sortedOrder();
+        ByteArray data = new ByteArray();
+        ByteArray blocks = new ByteArray();
+        int positions = 0;
+        long previousKey = 0;
+        int i = 0;
+        while (i < order.length) {
+            long key = counts.keys[order[i]];
+            int end = i;
+            while (end < order.length && counts.keys[order[end]] == key) {
+                end++;
+            }
+            if (positions % OpeningExplorer.BLOCK_POSITIONS == 0) {
+                blocks.putLong(key);
+                blocks.putInt(data.size);
+                previousKey = key;
+            }
+            data.putVarLong(key - previousKey);
+            data.putVarLong(end - i);
+            for (int j = i; j < end; j++) {
+                int slot = order[j];
+                data.putVarLong(counts.moves[slot]);
+                data.putVarLong(counts.counts[slot * 3]);
+                data.putVarLong(counts.counts[slot * 3 + 1]);
+                data.putVarLong(counts.counts[slot * 3 + 2]);
+            }
+            previousKey = key;
+            positions++;
+            i = end;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+            ByteBuffer header = ByteBuffer.allocate(OpeningExplorer.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(OpeningExplorer.MAGIC).putInt(OpeningExplorer.VERSION)
+                  .putInt(positions).putInt(maxPlies).putLong(games);
+            out.write(header.array());
+            out.write(blocks.bytes, 0, blocks.size);
+            out.write(data.bytes, 0, data.size);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return positions;
+    }
+
+    /**
+     * Splits a slice of the chunk in half until it is small enough to
+     * replay directly.
+     */
+    private class ReplayTask extends RecursiveAction {
+        private final String[] lines;
+        private final int from;
+        private final int to;
+
+        ReplayTask(String[] lines, int from, int to) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Replayer replayer = threadReplayers.get();
+                for (int i = from; i < to; i++) {
+                    replayer.replay(lines[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplayTask(lines, from, middle),
+                      new ReplayTask(lines, middle, to));
+        }
+    }
+
+    /**
+     * Per-thread replay state and counts, created once per pool thread.
+     */
+    private class Replayer {
+        private final MoveCounts counts = new MoveCounts();
+        private final int[] legal = new int[256];
+        private long games;
+
+        void replay(String line) {
+            int result = TexelTuner.parseResult(line);
+            if (result < 0) {
+                return;
+            }
+            games++;
+            Board board = new Board();
+            String side = "white";
+            int ply = 0;
+            for (String token : line.split("\\s+")) {
+                if (ply == maxPlies) {
+                    break;
+                }
+                int move = Move.fromUci(token);
+                if (move == Move.NONE) {
+                    continue;
+                }
+                if (!isLegal(board, side, move)) {
+                    break;
+                }
+                counts.add(AnalysisCache.key(board, side), move, result);
+                board.makeMove(move);
+                side = side.equals("white") ? "black" : "white";
+                ply++;
+            }
+        }
+
+        private boolean isLegal(Board board, String side, int move) {
+            int count = board.generateMoves(side, legal);
+            for (int i = 0; i < count; i++) {
+                if (legal[i] == move) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Game counts per position and move in an open-addressing table of
+     * primitive arrays. Counts are white wins, draws and black wins, in
+     * that order, three per slot.
+     */
+    private static class MoveCounts {
+        long[] keys = new long[1 << 12];
+        short[] moves = new short[1 << 12];
+        int[] counts = new int[3 << 12];
+        int size;
+
+        void add(long key, int move, int result) {
+            int slot = find(key, move);
+            // Results count halves of a point for white: 2 is a white win
+            counts[slot * 3 + 2 - result]++;
+        }
+
+        void addAll(MoveCounts other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.moves[i] != Move.NONE) {
+                    int slot = find(other.keys[i], other.moves[i]);
+                    for (int j = 0; j < 3; j++) {
+                        counts[slot * 3 + j] += other.counts[i * 3 + j];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the slot of a position and move, claiming an empty one
+         * if the pair is new. Moves are never {@link Move#NONE}, so an
+         * empty move marks a free slot.
+         */
+        private int find(long key, int move) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key, move) & mask;
+            while (moves[slot] != Move.NONE) {
+                if (keys[slot] == key && moves[slot] == move) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            moves[slot] = (short) move;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            short[] oldMoves = moves;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            moves = new short[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 6];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldMoves[i] != Move.NONE) {
+                    int slot = hash(oldKeys[i], oldMoves[i]) & mask;
+                    while (moves[slot] != Move.NONE) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    moves[slot] = oldMoves[i];
+                    System.arraycopy(oldCounts, i * 3, counts, slot * 3, 3);
+                }
+            }
+        }
+
+        private static int hash(long key, int move) {
+            long mixed = (key ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+            return (int) (mixed >>> 32);
+        }
+
+        /**
+         * Returns the used slots ordered by position key, and within a
+         * position by the number of games, most played first.
+         */
+        int[] sortedOrder() {
+            Integer[] order = new Integer[size];
+            int next = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (moves[i] != Move.NONE) {
+                    order[next++] = i;
+                }
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byKey = Long.compareUnsigned(keys[a], keys[b]);
+                return byKey != 0 ? byKey : Long.compare(games(b), games(a));
+            });
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = order[i];
+            }
+            return sorted;
+        }
+
+        private long games(int slot) {
+            return (long) counts[slot * 3] + counts[slot * 3 + 1] + counts[slot * 3 + 2];
+        }
+    }
+
+    /**
+     * A growable byte buffer for the little-endian and variable-length
+     * values of the file.
+     */
+    private static class ByteArray {
+        byte[] bytes = new byte[1 << 12];
+        int size;
+
+        void putLong(long value) {
+            for (int i = 0; i < 8; i++) {
+                put((byte) (value >>> (8 * i)));
+            }
+        }
+
+        void putInt(int value) {
+            for (int i = 0; i < 4; i++) {
+                put((byte) (value >>> (8 * i)));
+            }
+        }
+
+        /**
+         * Writes an unsigned value seven bits at a time, low bits first,
+         * with the top bit of each byte set when more follow.
+         */
+        void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        private void put(byte value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package analysis;
+
+import board.Board;
+import board.Move;
+import engine.AnalysisCache;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Move statistics per position from a collection of games, read from a
+ * file built by {@link OpeningAggregator}: for every position, which
+ * moves were played and how the games went on to end.
+ *
+ * The file is mapped into memory and never unpacked. Positions are
+ * sorted by key and stored in blocks of {@value #BLOCK_POSITIONS}. A
+ * block starts at a key listed in a small index, and each key after it
+ * is stored as its difference from the one before, so the high bytes
+ * consecutive keys share are not repeated. All numbers in a block are
+ * variable-length, seven bits per byte. A lookup binary-searches the
+ * index and decodes one block, which takes a few microseconds and is
+ * fast enough to run on the event dispatch thread after every move.
+ *
+ * The file is little-endian:
+ * <pre>
+ * int  magic "JCOX", version 1
+ * int  position count, plies counted per game
+ * long game count
+ * per block: long first key, int offset of the block in the data
+ * data, per position: key difference, move count, then per move:
+ *      move, white wins, draws, black wins
+ * </pre>
+ * Moves of a position are stored most played first.
+ *
+ * @author Abheek Pradhan
+ */
+public class OpeningExplorer {
+    public static final String DEFAULT_PATH = "openings.explorer";
+
+    static final int MAGIC = 0x584F434A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int BLOCK_POSITIONS = 16;
+    private static final int BLOCK_ENTRY_BYTES = 12;
+
+    private final MappedByteBuffer data;
+    private final int positions;
+    private final int maxPlies;
+    private final long games;
+    private final int blocks;
+    private final int dataOffset;
+
+    /**
+     * How often one move was played from a position and how those games
+     * ended.
+     */
+    public static class MoveStats {
+        private final int move;
+        private final long whiteWins;
+        private final long draws;
+        private final long blackWins;
+
+        MoveStats(int move, long whiteWins, long draws, long blackWins) {
+            this.move = move;
+            this.whiteWins = whiteWins;
+            this.draws = draws;
+            this.blackWins = blackWins;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public long getWhiteWins() {
+            return whiteWins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getBlackWins() {
+            return blackWins;
+        }
+
+        public long getGames() {
+            return whiteWins + draws + blackWins;
+        }
+
+        /**
+         * Formats the move with its game count and the share of white
+         * wins, draws and black wins, e.g. "e2e4  1200  40% 32% 28%".
+         */
+        @Override
+        public String toString() {
+            long games = getGames();
+            return String.format("%-5s %6d  %3d%% %3d%% %3d%%", Move.toUci(move), games,
+                Math.round(100.0 * whiteWins / games), Math.round(100.0 * draws / games),
+                Math.round(100.0 * blackWins / games));
+        }
+    }
+
+    private OpeningExplorer(MappedByteBuffer data) {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " explorer file");
+        }
+        positions = data.getInt(8);
+        maxPlies = data.getInt(12);
+        games = data.getLong(16);
+        blocks = (positions + BLOCK_POSITIONS - 1) / BLOCK_POSITIONS;
+        dataOffset = HEADER_BYTES + blocks * BLOCK_ENTRY_BYTES;
+        if (positions < 0 || data.capacity() < dataOffset) {
+            throw new IllegalArgumentException("Explorer file is truncated");
+        }
+    }
+
+    /**
+     * Maps an explorer file for lookups.
+     *
+     * @throws IllegalArgumentException If the file is not an explorer file
+     */
+    public static OpeningExplorer open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            return new OpeningExplorer(data);
+        }
+    }
+
+    /**
+     * Returns the moves played from the position, most played first, or
+     * an empty list if no game reached it.
+     */
+    public List<MoveStats> lookup(Board board, String sideToMove) {
+        List<MoveStats> found = new ArrayList<>();
+        long key = AnalysisCache.key(board, sideToMove);
+        int block = lastBlockAtOrBelow(key);
+        if (block < 0) {
+            return found;
+        }
+
+        // A view of its own, so lookups from several threads do not share a position
+        ByteBuffer in = data.duplicate();
+        in.position(dataOffset + data.getInt(HEADER_BYTES + block * BLOCK_ENTRY_BYTES + 8));
+        long current = blockKey(block);
+        int remaining = Math.min(BLOCK_POSITIONS, positions - block * BLOCK_POSITIONS);
+        for (int i = 0; i < remaining; i++) {
+            current += readVarLong(in);
+            int moves = (int) readVarLong(in);
+            if (current == key) {
+                for (int j = 0; j < moves; j++) {
+                    found.add(new MoveStats((int) readVarLong(in), readVarLong(in),
+                                            readVarLong(in), readVarLong(in)));
+                }
+                return found;
+            }
+            if (Long.compareUnsigned(current, key) > 0) {
+                break;
+            }
+            for (int j = 0; j < moves * 4; j++) {
+                readVarLong(in);
+            }
+        }
+        return found;
+    }
+
+    public int getPositionCount() {
+        return positions;
+    }
+
+    public long getGameCount() {
+        return games;
+    }
+
+    /**
+     * Returns how many moves of each game were counted.
+     */
+    public int getMaxPlies() {
+        return maxPlies;
+    }
+
+    /**
+     * Returns the last block whose first key is not above the given
+     * one, or -1 if the key comes before every block.
+     */
+    private int lastBlockAtOrBelow(long key) {
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(blockKey(middle), key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    private long blockKey(int block) {
+        return data.getLong(HEADER_BYTES + block * BLOCK_ENTRY_BYTES);
+    }
+
+    /**
+     * Reads a variable-length value written by the aggregator.
+     */
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = in.get();
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return value;
+    }
+}
@@ -0,0 +1,203 @@
+package analysis;
+
+import board.Board;
+import board.Fen;
+import board.Move;
+import engine.MateResult;
+import engine.MateSolver;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks a file of mate puzzles on all cores with {@link MateSolver}.
+ * Reading, splitting and writing work as in {@link BatchAnalyzer}: chunks
+ * of lines are spread over a ForkJoinPool and results come back in input
+ * order, with one solver per pool thread.
+ *
+ * Each input line is an EPD position whose "dm N" opcode gives the mate
+ * length to prove; lines without one use the default. An optional "bm"
+ * opcode in UCI notation names the expected key move.
+ *
+ * Each output line is the position's first four FEN fields followed by
+ * EPD opcodes: the mate length (dm), the result (mate, nomate or
+ * unknown when the node limit ran out), the mating line (pv), whether
+ * the solver's key move is the expected one (keymatch), nodes (acn) and
+ * time in microseconds (acs_us). Unreadable lines get an "error" opcode.
+ *
+ * @author Abheek Pradhan
+ */
+public class PuzzleVerifier {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int SPLIT_THRESHOLD = 16;
+    private static final int TABLE_MB = 8;
+    private static final long NODE_LIMIT = 5_000_000;
+
+    private final int defaultMateIn;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Verifier> verifiers = ThreadLocal.withInitial(Verifier::new);
+
+    public PuzzleVerifier(int defaultMateIn, int threads) {
+        this.defaultMateIn = defaultMateIn;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Verifies every puzzle in the input file and writes one result line
+     * per input line to the output file, reporting progress on standard
+     * error as it goes.
+     *
+     * @return The number of puzzles processed
+     */
+    public long run(String inputPath, String outputPath) throws IOException {
+        long start = System.nanoTime();
+        long processed = 0;
+        String[] lines = new String[CHUNK_SIZE];
+        String[] results = new String[CHUNK_SIZE];
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputPath), 1 << 16);
+             BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath), 1 << 16)) {
+            while (true) {
+                int count = 0;
+                String line;
+                while (count < CHUNK_SIZE && (line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        lines[count++] = line;
+                    }
+                }
+                if (count == 0) {
+                    break;
+                }
+
+                pool.invoke(new VerifyTask(lines, results, 0, count));
+                for (int i = 0; i < count; i++) {
+                    writer.write(results[i]);
+                    writer.newLine();
+                }
+                processed += count;
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.err.printf("%d puzzles, %.0f/s%n", processed, processed / seconds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return processed;
+    }
+
+    /**
+     * Returns the value of an EPD opcode, such as "3" for "dm 3;", or
+     * null if the line does not have it.
+     */
+    static String opcode(String line, String name) {
+        String[] operations = line.split(";");
+        for (String operation : operations) {
+            String[] words = operation.trim().split("\\s+");
+            // The first operation still carries the FEN fields in front of it
+            for (int i = 0; i + 1 < words.length; i++) {
+                if (words[i].equals(name)) {
+                    return words[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits a slice of the chunk in half until it is small enough to
+     * verify directly.
+     */
+    private class VerifyTask extends RecursiveAction {
+        private final String[] lines;
+        private final String[] results;
+        private final int from;
+        private final int to;
+
+        VerifyTask(String[] lines, String[] results, int from, int to) {
+            this.lines = lines;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Verifier verifier = verifiers.get();
+                for (int i = from; i < to; i++) {
+                    results[i] = verifier.verify(lines[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new VerifyTask(lines, results, from, middle),
+                      new VerifyTask(lines, results, middle, to));
+        }
+    }
+
+    /**
+     * Per-thread verification state, created once per pool thread.
+     */
+    private class Verifier {
+        private final Board board = Board.empty();
+        private final MateSolver solver = new MateSolver(TABLE_MB);
+        private final StringBuilder out = new StringBuilder(160);
+
+        Verifier() {
+            solver.setNodeLimit(NODE_LIMIT);
+        }
+
+        String verify(String line) {
+            out.setLength(0);
+            String[] fields = line.split("\\s+", 5);
+            for (int i = 0; i < Math.min(4, fields.length); i++) {
+                out.append(fields[i]).append(' ');
+            }
+
+            String side;
+            int mateIn;
+            try {
+                side = Fen.load(board, line);
+                String dm = opcode(line, "dm");
+                mateIn = dm != null ? Integer.parseInt(dm) : defaultMateIn;
+                if (mateIn < 1 || mateIn > MateSolver.MAX_MATE_IN) {
+                    throw new IllegalArgumentException("Mate depth out of range: " + mateIn);
+                }
+            } catch (IllegalArgumentException e) {
+                return out.append("; error \"").append(e.getMessage()).append("\";").toString();
+            }
+
+            long started = System.nanoTime();
+            MateResult result = solver.solve(board, side, mateIn);
+            out.append("; dm ").append(mateIn)
+               .append("; result ").append(resultName(result.getOutcome())).append(';');
+            if (result.getOutcome() == MateResult.Outcome.MATE) {
+                out.append(" pv ").append(result.mateLineText()).append(';');
+                String expected = opcode(line, "bm");
+                if (expected != null) {
+                    boolean match = Move.fromUci(expected) == result.getKeyMove();
+                    out.append(" keymatch ").append(match).append(';');
+                }
+            }
+            out.append(" acn ").append(result.getNodes())
+               .append("; acs_us ").append((System.nanoTime() - started) / 1000).append(';');
+            return out.toString();
+        }
+
+        private String resultName(MateResult.Outcome outcome) {
+            switch (outcome) {
+                case MATE:
+                    return "mate";
+                case NO_MATE:
+                    return "nomate";
+                default:
+                    return "unknown";
+            }
+        }
+    }
+}
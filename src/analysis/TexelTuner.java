@@ -0,0 +1,296 @@
+package analysis;
+
+import board.Board;
+import board.Fen;
+import engine.Evaluator;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tunes the {@link Evaluator}'s material values and piece-square tables
+ * to a corpus of positions labelled with the result of the game they
+ * came from (Texel's method).
+ *
+ * The evaluation is a sum of one material value and one table entry per
+ * piece, added for white and subtracted for black, so each position is
+ * stored as just the list of parameters it uses: one short per piece and
+ * parameter, negated for black, in one array for the whole corpus. A
+ * middlegame position takes about 100 bytes.
+ *
+ * The error is the mean squared difference between each result and the
+ * win probability predicted from the evaluation, 1 / (1 + 10^(-K * eval
+ * / 400)). K is fitted once to the starting values. The weights are then
+ * optimised with Adam on the full-batch gradient, which a ForkJoinPool
+ * computes in slices of the corpus on all cores.
+ *
+ * Positions are scored statically, so the corpus should hold quiet
+ * positions, away from captures and checks.
+ *
+ * @author Abheek Pradhan
+ */
+public class TexelTuner {
+    private static final int TYPES = 6;
+    private static final int PARAMETERS = TYPES + TYPES * 64;
+    private static final int SPLIT_THRESHOLD = 8192;
+    private static final double LEARNING_RATE = 1.0;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+    private static final double LN10 = Math.log(10);
+
+    private final ForkJoinPool pool;
+
+    // Corpus: the parameters of position i are features[starts[i]..starts[i + 1])
+    private short[] features = new short[1 << 16];
+    private int[] starts = new int[1 << 12];
+    // Game results from white's side: 0 for a loss, 1 for a draw, 2 for a win
+    private byte[] results = new byte[1 << 12];
+    private int positions;
+    private int skipped;
+
+    private final double[] weights = new double[PARAMETERS];
+    private double scale = 1.0;
+
+    public TexelTuner(int threads) {
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Reads labelled positions, one per line: a FEN or EPD position
+     * followed by the result as "1-0", "0-1" or "1/2-1/2", optionally
+     * quoted as in an EPD c9 opcode, or as a score in brackets such as
+     * "[0.5]". Lines without a readable position or result are skipped.
+     *
+     * @return The number of positions loaded so far
+     */
+    public int load(String path) throws IOException {
+        Board board = Board.empty();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int result = parseResult(line);
+                if (result < 0) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    Fen.load(board, line);
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    continue;
+                }
+                add(board, result);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the number of lines that could not be used.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Tunes starting from the given evaluator and returns the result,
+     * reporting the error on standard error as it goes.
+     *
+     * @param epochs Passes over the whole corpus
+     */
+    public Evaluator tune(Evaluator start, int epochs) {
+        if (positions == 0) {
+            throw new IllegalStateException("No positions loaded");
+        }
+        for (int type = 0; type < TYPES; type++) {
+            weights[type] = start.getMaterialValue(type);
+            for (int square = 0; square < 64; square++) {
+                weights[TYPES + type * 64 + square] = start.getPieceSquareValue(type, square);
+            }
+        }
+        try {
+            fitScale();
+            System.err.printf("%d positions, K = %.3f, error %.6f%n", positions, scale, error());
+
+            double[] firstMoment = new double[PARAMETERS];
+            double[] secondMoment = new double[PARAMETERS];
+            for (int epoch = 1; epoch <= epochs; epoch++) {
+                double[] gradient = pool.invoke(new GradientTask(0, positions, true));
+                for (int i = 0; i < PARAMETERS; i++) {
+                    double g = gradient[i] / positions;
+                    firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * g;
+                    secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * g * g;
+                    double corrected = firstMoment[i] / (1 - Math.pow(BETA1, epoch));
+                    double spread = secondMoment[i] / (1 - Math.pow(BETA2, epoch));
+                    weights[i] -= LEARNING_RATE * corrected / (Math.sqrt(spread) + EPSILON);
+                }
+                if (epoch % 10 == 0 || epoch == epochs) {
+                    System.err.printf("epoch %d, error %.6f%n", epoch, gradient[PARAMETERS] / positions);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] material = new int[TYPES];
+        int[][] pieceSquare = new int[TYPES][64];
+        for (int type = 0; type < TYPES; type++) {
+            material[type] = (int) Math.round(weights[type]);
+            for (int square = 0; square < 64; square++) {
+                pieceSquare[type][square] = (int) Math.round(weights[TYPES + type * 64 + square]);
+            }
+        }
+        return new Evaluator(material, pieceSquare);
+    }
+
+    /**
+     * Loads the corpus, tunes the default evaluation and writes the
+     * weights file.
+     */
+    public void run(String inputPath, String outputPath, int epochs) throws IOException {
+        long start = System.nanoTime();
+        load(inputPath);
+        System.err.printf("Loaded %d positions (%d skipped) in %.1fs%n",
+            positions, skipped, (System.nanoTime() - start) / 1e9);
+        tune(new Evaluator(), epochs).save(Paths.get(outputPath));
+    }
+
+    /**
+     * Appends a position's parameters to the corpus.
+     */
+    private void add(Board board, int result) {
+        if (positions + 1 >= starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            results = Arrays.copyOf(results, results.length * 2);
+        }
+        int end = starts[positions];
+        for (int type = 0; type < TYPES; type++) {
+            for (int side = 0; side < 2; side++) {
+                long pieces = board.getBitboard(type, side == 0 ? "white" : "black");
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    if (end + 2 > features.length) {
+                        features = Arrays.copyOf(features, features.length * 2);
+                    }
+                    int table = TYPES + type * 64 + (side == 0 ? square : square ^ 56);
+                    features[end++] = (short) (side == 0 ? type : ~type);
+                    features[end++] = (short) (side == 0 ? table : ~table);
+                }
+            }
+        }
+        results[positions] = (byte) result;
+        positions++;
+        starts[positions] = end;
+    }
+
+    /**
+     * Returns the result as 0, 1 or 2 halves of a point for white, or -1
+     * if the line has none.
+     */
+    static int parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) {
+            return 1;
+        }
+        if (line.contains("1-0") || line.contains("[1.0]") || line.contains("[1]")) {
+            return 2;
+        }
+        if (line.contains("0-1") || line.contains("[0.0]") || line.contains("[0]")) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the K that best fits the starting weights by narrowing an
+     * interval around the minimum of the error.
+     */
+    private void fitScale() {
+        double low = 0.1;
+        double high = 3.0;
+        while (high - low > 0.001) {
+            double left = low + (high - low) / 3;
+            double right = high - (high - low) / 3;
+            scale = left;
+            double leftError = error();
+            scale = right;
+            double rightError = error();
+            if (leftError < rightError) {
+                high = right;
+            } else {
+                low = left;
+            }
+        }
+        scale = (low + high) / 2;
+    }
+
+    private double error() {
+        return pool.invoke(new GradientTask(0, positions, false))[PARAMETERS] / positions;
+    }
+
+    /**
+     * Sums the squared error, and optionally its gradient, over a slice
+     * of the corpus. The last element of the returned array is the error.
+     */
+    private class GradientTask extends RecursiveTask<double[]> {
+        private final int from;
+        private final int to;
+        private final boolean withGradient;
+
+        GradientTask(int from, int to, boolean withGradient) {
+            this.from = from;
+            this.to = to;
+            this.withGradient = withGradient;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                GradientTask right = new GradientTask(middle, to, withGradient);
+                right.fork();
+                double[] sums = new GradientTask(from, middle, withGradient).compute();
+                double[] other = right.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += other[i];
+                }
+                return sums;
+            }
+
+            double[] sums = new double[PARAMETERS + 1];
+            double slope = scale * LN10 / 400;
+            for (int position = from; position < to; position++) {
+                double eval = 0;
+                for (int i = starts[position]; i < starts[position + 1]; i++) {
+                    int feature = features[i];
+                    eval += feature >= 0 ? weights[feature] : -weights[~feature];
+                }
+                double predicted = 1 / (1 + Math.exp(-slope * eval));
+                double difference = results[position] / 2.0 - predicted;
+                sums[PARAMETERS] += difference * difference;
+                if (withGradient) {
+                    // d(error)/d(eval), spread over the position's parameters
+                    double step = -2 * difference * predicted * (1 - predicted) * slope;
+                    for (int i = starts[position]; i < starts[position + 1]; i++) {
+                        int feature = features[i];
+                        if (feature >= 0) {
+                            sums[feature] += step;
+                        } else {
+                            sums[~feature] -= step;
+                        }
+                    }
+                }
+            }
+            return sums;
+        }
+    }
+}
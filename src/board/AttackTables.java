@@ -0,0 +1,225 @@
+package board;
+
+/**
+ * Precomputed attack sets for every piece type, indexed by square
+ * ({@code row * 8 + column}, row 0 being black's back rank).
+ * Leaper attacks are plain table lookups. Slider attacks use magic
+ * multiplication: the relevant blockers are multiplied by a per-square
+ * magic number and the top bits of the product index a table of
+ * precomputed attack sets. All tables and magics are generated once
+ * when the class is loaded.
+ * 
+ * @author Abheek Pradhan
+ */
+public final class AttackTables {
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    private static final long[] MAGIC_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        int[][] kingSteps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            KNIGHT[square] = stepAttacks(row, col, knightSteps);
+            KING[square] = stepAttacks(row, col, kingSteps);
+            // White pawns move toward row 0, black pawns toward row 7
+            PAWN[0][square] = stepAttacks(row, col, new int[][] {{-1, -1}, {-1, 1}});
+            PAWN[1][square] = stepAttacks(row, col, new int[][] {{1, -1}, {1, 1}});
+        }
+
+        for (int from = 0; from < 64; from++) {
+            for (int[] dir : kingSteps) {
+                long path = 0L;
+                int row = from / 8 + dir[0];
+                int col = from % 8 + dir[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    BETWEEN[from][row * 8 + col] = path;
+                    path |= bit(row * 8 + col);
+                    row += dir[0];
+                    col += dir[1];
+                }
+            }
+        }
+
+        for (int square = 0; square < 64; square++) {
+            // Fixed seeds per row keep generation deterministic and quick
+            long[] random = {MAGIC_SEEDS[square / 8]};
+            ROOK_MASK[square] = relevantBlockers(square, ROOK_DIRECTIONS);
+            ROOK_SHIFT[square] = 64 - Long.bitCount(ROOK_MASK[square]);
+            ROOK_ATTACKS[square] = new long[1 << Long.bitCount(ROOK_MASK[square])];
+            ROOK_MAGIC[square] = findMagic(square, ROOK_MASK[square], ROOK_SHIFT[square],
+                ROOK_DIRECTIONS, ROOK_ATTACKS[square], random);
+
+            BISHOP_MASK[square] = relevantBlockers(square, BISHOP_DIRECTIONS);
+            BISHOP_SHIFT[square] = 64 - Long.bitCount(BISHOP_MASK[square]);
+            BISHOP_ATTACKS[square] = new long[1 << Long.bitCount(BISHOP_MASK[square])];
+            BISHOP_MAGIC[square] = findMagic(square, BISHOP_MASK[square], BISHOP_SHIFT[square],
+                BISHOP_DIRECTIONS, BISHOP_ATTACKS[square], random);
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Returns the squares a pawn of the given color attacks from a square.
+     */
+    public static long pawnAttacks(String color, int square) {
+        return PAWN[color.equals("white") ? 0 : 1][square];
+    }
+
+    static long pawnAttacks(int side, int square) {
+        return PAWN[side][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        long blockers = occupied & ROOK_MASK[square];
+        return ROOK_ATTACKS[square][(int) ((blockers * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        long blockers = occupied & BISHOP_MASK[square];
+        return BISHOP_ATTACKS[square][(int) ((blockers * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares strictly between two squares on a shared rank,
+     * file or diagonal, or zero if they are not aligned.
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    private static long stepAttacks(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= bit(r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Squares whose occupancy can change a slider's attacks. The last
+     * square of each ray is left out because nothing lies beyond it.
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] dir : directions) {
+            int row = square / 8 + dir[0];
+            int col = square % 8 + dir[1];
+            while (row + dir[0] >= 0 && row + dir[0] < 8 && col + dir[1] >= 0 && col + dir[1] < 8) {
+                mask |= bit(row * 8 + col);
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slowSliderAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] dir : directions) {
+            int row = square / 8 + dir[0];
+            int col = square % 8 + dir[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= bit(row * 8 + col);
+                if ((occupied & bit(row * 8 + col)) != 0) {
+                    break;
+                }
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Xorshift64* generator; the state lives in a one-element array.
+     */
+    private static long nextRandom(long[] state) {
+        long s = state[0];
+        s ^= s >>> 12;
+        s ^= s << 25;
+        s ^= s >>> 27;
+        state[0] = s;
+        return s * 2685821657736338717L;
+    }
+
+    /**
+     * Tries sparse random candidates until one maps every blocker subset
+     * to a table slot without a destructive collision, filling the table.
+     */
+    private static long findMagic(int square, long mask, int shift, int[][] directions,
+                                  long[] table, long[] random) {
+        int subsets = 1 << Long.bitCount(mask);
+        long[] blockers = new long[subsets];
+        long[] attacks = new long[subsets];
+        long subset = 0L;
+        for (int i = 0; i < subsets; i++) {
+            // Carry-rippler enumeration of every subset of the mask
+            blockers[i] = subset;
+            attacks[i] = slowSliderAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        int[] epoch = new int[subsets];
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom(random) & nextRandom(random) & nextRandom(random);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean collision = false;
+            for (int i = 0; i < subsets && !collision; i++) {
+                int index = (int) ((blockers[i] * magic) >>> shift);
+                if (epoch[index] < attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                return magic;
+            }
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package board;
 
 import pieces.Piece;
+import profiling.Counter;
+import profiling.Latency;
+import profiling.MoveValidationEvent;
 import utils.Position;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Represents the chess board and manages game state.
@@ -14,36 +23,102 @@ public class Board {
     private Piece[][] squares;
     private static final int BOARD_SIZE = 8;
 
+    // Random keys per piece kind (6 types x 2 colors) and square for position hashing
+    private static final long[][] ZOBRIST_KEYS = new long[12][BOARD_SIZE * BOARD_SIZE];
+
+    static {
+        Random random = new Random(0x5DEECE66DL);
+        for (long[] keys : ZOBRIST_KEYS) {
+            for (int square = 0; square < keys.length; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+    }
+
+    // Piece type codes; a piece's kind index is type * 2 + side (white = 0)
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    // Squares where row + column is even
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    // Shared positions handed to pieces by makeMove so searching allocates nothing
+    private static final Position[] SQUARE_POSITIONS = new Position[BOARD_SIZE * BOARD_SIZE];
+
+    static {
+        for (int square = 0; square < SQUARE_POSITIONS.length; square++) {
+            SQUARE_POSITIONS[square] = Position.fromIndex(square);
+        }
+    }
+
+    // Hash of the current piece placement, kept up to date by setSquare
+    private long positionKey;
+
+    // Bit sets of occupied squares per piece kind, per side and overall
+    private final long[] pieceBitboards = new long[12];
+    private final long[] sideOccupancy = new long[2];
+    private long occupied;
+    private final PositionAnalysis analysis = new PositionAnalysis();
+
+    // Told about every piece added or removed, if set
+    private PieceTracker tracker;
+
+    // Moves played with makeMove and the pieces they captured, for unmakeMove
+    private int[] undoMoves = new int[64];
+    private Piece[] undoCaptured = new Piece[64];
+    private int undoCount;
+
+    // Observers of game-level changes and the check state last reported to them
+    private final List<BoardListener> listeners = new ArrayList<>();
+    private final boolean[] reportedCheck = new boolean[2];
+
     public Board() {
+        this(true);
+    }
+
+    private Board(boolean setUp) {
         squares = new Piece[BOARD_SIZE][BOARD_SIZE];
-        initialize();
+        if (setUp) {
+            initialize();
+        }
+    }
+
+    /**
+     * Creates a board with no pieces on it.
+     */
+    public static Board empty() {
+        return new Board(false);
     }
 
     private void initialize() {
         // Set up black pieces
-        squares[0][0] = new pieces.Rook("black", new Position(0, 0));
-        squares[0][1] = new pieces.Knight("black", new Position(0, 1));
-        squares[0][2] = new pieces.Bishop("black", new Position(0, 2));
-        squares[0][3] = new pieces.Queen("black", new Position(0, 3));
-        squares[0][4] = new pieces.King("black", new Position(0, 4));
-        squares[0][5] = new pieces.Bishop("black", new Position(0, 5));
-        squares[0][6] = new pieces.Knight("black", new Position(0, 6));
-        squares[0][7] = new pieces.Rook("black", new Position(0, 7));
+        setSquare(0, 0, new pieces.Rook("black", new Position(0, 0)));
+        setSquare(0, 1, new pieces.Knight("black", new Position(0, 1)));
+        setSquare(0, 2, new pieces.Bishop("black", new Position(0, 2)));
+        setSquare(0, 3, new pieces.Queen("black", new Position(0, 3)));
+        setSquare(0, 4, new pieces.King("black", new Position(0, 4)));
+        setSquare(0, 5, new pieces.Bishop("black", new Position(0, 5)));
+        setSquare(0, 6, new pieces.Knight("black", new Position(0, 6)));
+        setSquare(0, 7, new pieces.Rook("black", new Position(0, 7)));
         for (int i = 0; i < BOARD_SIZE; i++) {
-            squares[1][i] = new pieces.Pawn("black", new Position(1, i));
+            setSquare(1, i, new pieces.Pawn("black", new Position(1, i)));
         }
 
         // Set up white pieces
-        squares[7][0] = new pieces.Rook("white", new Position(7, 0));
-        squares[7][1] = new pieces.Knight("white", new Position(7, 1));
-        squares[7][2] = new pieces.Bishop("white", new Position(7, 2));
-        squares[7][3] = new pieces.Queen("white", new Position(7, 3));
-        squares[7][4] = new pieces.King("white", new Position(7, 4));
-        squares[7][5] = new pieces.Bishop("white", new Position(7, 5));
-        squares[7][6] = new pieces.Knight("white", new Position(7, 6));
-        squares[7][7] = new pieces.Rook("white", new Position(7, 7));
+        setSquare(7, 0, new pieces.Rook("white", new Position(7, 0)));
+        setSquare(7, 1, new pieces.Knight("white", new Position(7, 1)));
+        setSquare(7, 2, new pieces.Bishop("white", new Position(7, 2)));
+        setSquare(7, 3, new pieces.Queen("white", new Position(7, 3)));
+        setSquare(7, 4, new pieces.King("white", new Position(7, 4)));
+        setSquare(7, 5, new pieces.Bishop("white", new Position(7, 5)));
+        setSquare(7, 6, new pieces.Knight("white", new Position(7, 6)));
+        setSquare(7, 7, new pieces.Rook("white", new Position(7, 7)));
         for (int i = 0; i < BOARD_SIZE; i++) {
-            squares[6][i] = new pieces.Pawn("white", new Position(6, i));
+            setSquare(6, i, new pieces.Pawn("white", new Position(6, i)));
         }
     }
 
@@ -51,12 +126,106 @@ public class Board {
         return squares[position.getRow()][position.getColumn()];
     }
 
+    /**
+     * Returns a 64-bit hash identifying the current piece placement.
+     * Equal placements always produce equal keys.
+     */
+    public long getPositionKey() {
+        return positionKey;
+    }
+
+    /**
+     * Returns the set of occupied squares, one bit per square index
+     * ({@code row * 8 + column}).
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * Writes a square and keeps the position key and bit sets in sync.
+     * Every change to the board goes through here.
+     */
+    private void setSquare(int row, int col, Piece piece) {
+        int square = row * BOARD_SIZE + col;
+        long bit = 1L << square;
+        Piece previous = squares[row][col];
+        if (previous != null) {
+            int kind = pieceIndex(previous);
+            positionKey ^= ZOBRIST_KEYS[kind][square];
+            pieceBitboards[kind] &= ~bit;
+            sideOccupancy[kind & 1] &= ~bit;
+            occupied &= ~bit;
+            if (tracker != null) {
+                tracker.pieceRemoved(kind, square);
+            }
+        }
+        if (piece != null) {
+            int kind = pieceIndex(piece);
+            positionKey ^= ZOBRIST_KEYS[kind][square];
+            pieceBitboards[kind] |= bit;
+            sideOccupancy[kind & 1] |= bit;
+            occupied |= bit;
+            if (tracker != null) {
+                tracker.pieceAdded(kind, square);
+            }
+        }
+        squares[row][col] = piece;
+    }
+
+    private void setSquare(int square, Piece piece) {
+        setSquare(square / BOARD_SIZE, square % BOARD_SIZE, piece);
+    }
+
+    private static int pieceIndex(Piece piece) {
+        int type;
+        if (piece instanceof pieces.Pawn) type = PAWN;
+        else if (piece instanceof pieces.Knight) type = KNIGHT;
+        else if (piece instanceof pieces.Bishop) type = BISHOP;
+        else if (piece instanceof pieces.Rook) type = ROOK;
+        else if (piece instanceof pieces.Queen) type = QUEEN;
+        else type = KING;
+        return type * 2 + colorIndex(piece.getColor());
+    }
+
+    private static int colorIndex(String color) {
+        return color.equals("white") ? 0 : 1;
+    }
+
+    /**
+     * Returns the analysis for the current position, discarding facts
+     * that were computed for a different position.
+     */
+    private PositionAnalysis analysis() {
+        if (analysis.key != positionKey) {
+            analysis.reset(positionKey);
+        }
+        return analysis;
+    }
+
     /**
      * Attempts to move a piece from one position to another.
      * Validates move legality including check conditions.
      */
     public boolean movePiece(Position from, Position to) {
+        Counter.MOVES_VALIDATED.increment();
+        long started = Latency.start();
+        MoveValidationEvent event = new MoveValidationEvent();
+        event.begin();
         Piece piece = getPiece(from);
+        boolean moved = validateAndMove(piece, from, to);
+        if (event.shouldCommit()) {
+            event.from = from.toString();
+            event.to = to.toString();
+            event.piece = piece == null ? null : piece.getClass().getSimpleName();
+            event.legal = moved;
+            event.commit();
+        }
+        Latency.MOVE_PIECE.record(started);
+        return moved;
+    }
+
+    private boolean validateAndMove(Piece piece, Position from, Position to) {
         
         if (piece == null) {
             return false;
@@ -73,102 +242,314 @@ public class Board {
             return false;
         }
 
-        // Simulate move to check if it would result in check
-        Board tempBoard = copyBoard();
-        tempBoard.squares[to.getRow()][to.getColumn()] = piece;
-        tempBoard.squares[from.getRow()][from.getColumn()] = null;
-        
         // Prevent moves that would put/leave own king in check
-        if (tempBoard.isInCheck(piece.getColor())) {
+        if (wouldMoveExposeCheck(from, to)) {
             return false;
         }
 
         // Execute the move
-        squares[to.getRow()][to.getColumn()] = piece;
-        squares[from.getRow()][from.getColumn()] = null;
+        setSquare(to.getRow(), to.getColumn(), piece);
+        setSquare(from.getRow(), from.getColumn(), null);
         piece.setPosition(to);
+
+        if (!listeners.isEmpty()) {
+            for (BoardListener listener : listeners) {
+                listener.squareChanged(from.toIndex(), null);
+                listener.squareChanged(to.toIndex(), piece);
+                if (targetPiece != null) {
+                    listener.pieceCaptured(targetPiece);
+                }
+            }
+            publishCheckChanges();
+        }
         
         return true;
     }
 
+    /**
+     * Registers a listener for game-level board changes.
+     * Copies made with {@link #copyBoard()} start without listeners.
+     */
+    public void addBoardListener(BoardListener listener) {
+        if (listeners.isEmpty()) {
+            reportedCheck[0] = isInCheck("white");
+            reportedCheck[1] = isInCheck("black");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeBoardListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Installs the tracker told about every piece added or removed from
+     * now on, replacing any previous one; null removes it. Copies made
+     * with {@link #copyBoard()} start without a tracker.
+     */
+    public void setPieceTracker(PieceTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    public PieceTracker getPieceTracker() {
+        return tracker;
+    }
+
+    /**
+     * Tells listeners about any king whose check state differs from
+     * what they were last told.
+     */
+    private void publishCheckChanges() {
+        String[] colors = {"white", "black"};
+        for (int side = 0; side < 2; side++) {
+            boolean inCheck = isInCheck(colors[side]);
+            if (inCheck != reportedCheck[side]) {
+                reportedCheck[side] = inCheck;
+                for (BoardListener listener : listeners) {
+                    listener.checkChanged(colors[side], inCheck);
+                }
+            }
+        }
+    }
+
     /**
      * Checks if the specified color's king is in check.
+     * The answer is remembered until the position changes.
      */
     public boolean isInCheck(String color) {
-        Position kingPos = findKing(color);
-        if (kingPos == null) return false;
+        PositionAnalysis current = analysis();
+        int side = colorIndex(color);
+        if (current.inCheck[side] == null) {
+            Counter.CACHE_MISSES.increment();
+            current.inCheck[side] = computeInCheck(color);
+        } else {
+            Counter.CACHE_HITS.increment();
+        }
+        return current.inCheck[side];
+    }
 
-        // Check if any opponent's piece can attack the king
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece piece = squares[row][col];
-                if (piece != null && !piece.getColor().equals(color)) {
-                    if (piece.canMove(this, kingPos)) {
-                        return true;
+    private boolean computeInCheck(String color) {
+        return computeInCheck(colorIndex(color));
+    }
+
+    private boolean computeInCheck(int side) {
+        Counter.CHECK_TESTS.increment();
+        long king = pieceBitboards[KING * 2 + side];
+        if (king == 0) return false;
+        return isSquareAttacked(Long.numberOfTrailingZeros(king), side ^ 1);
+    }
+
+    /**
+     * Returns true if any piece of the given side attacks the square.
+     * Works backwards from the target: a square is attacked by a knight
+     * if a knight stands a knight's move away, and so on for each type.
+     */
+    private boolean isSquareAttacked(int square, int bySide) {
+        long[] bb = pieceBitboards;
+        if ((AttackTables.pawnAttacks(bySide ^ 1, square) & bb[PAWN * 2 + bySide]) != 0) return true;
+        if ((AttackTables.knightAttacks(square) & bb[KNIGHT * 2 + bySide]) != 0) return true;
+        if ((AttackTables.kingAttacks(square) & bb[KING * 2 + bySide]) != 0) return true;
+        long queens = bb[QUEEN * 2 + bySide];
+        if ((AttackTables.bishopAttacks(square, occupied) & (bb[BISHOP * 2 + bySide] | queens)) != 0) return true;
+        return (AttackTables.rookAttacks(square, occupied) & (bb[ROOK * 2 + bySide] | queens)) != 0;
+    }
+
+    /**
+     * Determines if the specified color is in checkmate.
+     */
+    public boolean isCheckmate(String color) {
+        return gameStatus(color) == GameStatus.CHECKMATE;
+    }
+
+    /**
+     * Determines the state of the game for the specified side to move.
+     * The legal move search stops at the first legal move found and tries
+     * king moves first, since those most often prove a position isn't mate.
+     */
+    public GameStatus gameStatus(String color) {
+        PositionAnalysis current = analysis();
+        int side = colorIndex(color);
+        if (current.status[side] == null) {
+            Counter.CACHE_MISSES.increment();
+            long started = Latency.start();
+            boolean inCheck = isInCheck(color);
+            GameStatus status;
+            if (!hasLegalMove(color)) {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            } else if (isInsufficientMaterial()) {
+                status = GameStatus.INSUFFICIENT_MATERIAL;
+            } else {
+                status = inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
+            }
+            current.status[side] = status;
+            Latency.GAME_STATUS.record(started);
+        } else {
+            Counter.CACHE_HITS.increment();
+        }
+        return current.status[side];
+    }
+
+    /**
+     * Returns the legal destinations for the piece on the given square,
+     * or an empty list if the square is empty.
+     * The list is computed once per position and must not be modified.
+     */
+    public List<Position> getLegalMoves(Position from) {
+        Map<Position, List<Position>> legalMoves = analysis().legalMoves;
+        List<Position> moves = legalMoves.get(from);
+        if (moves == null) {
+            Counter.CACHE_MISSES.increment();
+            moves = new ArrayList<>();
+            if (getPiece(from) != null) {
+                for (int row = 0; row < BOARD_SIZE; row++) {
+                    for (int col = 0; col < BOARD_SIZE; col++) {
+                        Position to = new Position(row, col);
+                        if (canMoveWithoutCheck(from, to)) {
+                            moves.add(to);
+                        }
                     }
                 }
             }
+            moves = Collections.unmodifiableList(moves);
+            legalMoves.put(from, moves);
+        } else {
+            Counter.CACHE_HITS.increment();
         }
-        return false;
+        return moves;
     }
 
     /**
-     * Determines if the specified color is in checkmate.
+     * Returns the squares attacked or defended by the specified color as a
+     * bit set, where bit {@code row * 8 + column} marks an attacked square.
+     * Pawns only count their diagonal capture squares.
      */
-    public boolean isCheckmate(String color) {
-        if (!isInCheck(color)) {
-            return false;
+    public long getAttackedSquares(String color) {
+        PositionAnalysis current = analysis();
+        int side = colorIndex(color);
+        if (!current.attacksKnown[side]) {
+            long attacks = 0L;
+            long remaining = sideOccupancy[side];
+            while (remaining != 0) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                attacks |= attacksFrom(square, side);
+            }
+            current.attacks[side] = attacks;
+            current.attacksKnown[side] = true;
+        }
+        return current.attacks[side];
+    }
+
+    private long attacksFrom(int square, int side) {
+        Piece piece = squares[square / BOARD_SIZE][square % BOARD_SIZE];
+        switch (pieceIndex(piece) >> 1) {
+            case PAWN: return AttackTables.pawnAttacks(side, square);
+            case KNIGHT: return AttackTables.knightAttacks(square);
+            case BISHOP: return AttackTables.bishopAttacks(square, occupied);
+            case ROOK: return AttackTables.rookAttacks(square, occupied);
+            case QUEEN: return AttackTables.queenAttacks(square, occupied);
+            default: return AttackTables.kingAttacks(square);
+        }
+    }
+
+    /**
+     * Returns true if the specified color has at least one legal move.
+     */
+    private boolean hasLegalMove(String color) {
+        Position kingPos = findKing(color);
+        if (kingPos != null) {
+            // A king can never step onto a square the opponent already covers
+            long covered = getAttackedSquares(colorIndex(color) == 0 ? "black" : "white");
+            for (int row = kingPos.getRow() - 1; row <= kingPos.getRow() + 1; row++) {
+                for (int col = kingPos.getColumn() - 1; col <= kingPos.getColumn() + 1; col++) {
+                    if (row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE
+                            && (covered & (1L << (row * BOARD_SIZE + col))) == 0
+                            && canMoveWithoutCheck(kingPos, new Position(row, col))) {
+                        return true;
+                    }
+                }
+            }
         }
 
-        // Try all possible moves for all pieces
         for (int fromRow = 0; fromRow < BOARD_SIZE; fromRow++) {
             for (int fromCol = 0; fromCol < BOARD_SIZE; fromCol++) {
                 Piece piece = squares[fromRow][fromCol];
-                if (piece != null && piece.getColor().equals(color)) {
-                    // Try moving this piece to every square
-                    for (int toRow = 0; toRow < BOARD_SIZE; toRow++) {
-                        for (int toCol = 0; toCol < BOARD_SIZE; toCol++) {
-                            Position from = new Position(fromRow, fromCol);
-                            Position to = new Position(toRow, toCol);
-                            
-                            // If any legal move exists, it's not checkmate
-                            if (canMoveWithoutCheck(from, to)) {
-                                return false;
-                            }
+                if (piece == null || piece instanceof pieces.King || !piece.getColor().equals(color)) {
+                    continue;
+                }
+                Position from = new Position(fromRow, fromCol);
+                for (int toRow = 0; toRow < BOARD_SIZE; toRow++) {
+                    for (int toCol = 0; toCol < BOARD_SIZE; toCol++) {
+                        if (canMoveWithoutCheck(from, new Position(toRow, toCol))) {
+                            return true;
                         }
                     }
                 }
             }
         }
-        return true;
+        return false;
+    }
+
+    /**
+     * Returns true if neither side can possibly deliver mate: bare kings,
+     * a single minor piece, or only bishops that all stand on one square color.
+     */
+    public boolean isInsufficientMaterial() {
+        long[] bb = pieceBitboards;
+        if ((bb[PAWN * 2] | bb[PAWN * 2 + 1] | bb[ROOK * 2] | bb[ROOK * 2 + 1]
+                | bb[QUEEN * 2] | bb[QUEEN * 2 + 1]) != 0) {
+            return false;
+        }
+        long knights = bb[KNIGHT * 2] | bb[KNIGHT * 2 + 1];
+        long bishops = bb[BISHOP * 2] | bb[BISHOP * 2 + 1];
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
     }
 
     /**
      * Tests if a move can be made without resulting in check.
+     * The move is simulated in place and then taken back.
      */
     private boolean canMoveWithoutCheck(Position from, Position to) {
         Piece piece = getPiece(from);
         if (piece == null) return false;
 
+        Piece captured = getPiece(to);
+        if (captured != null && captured.getColor().equals(piece.getColor())) return false;
+
         if (!piece.canMove(this, to)) return false;
 
-        Board tempBoard = copyBoard();
-        tempBoard.squares[to.getRow()][to.getColumn()] = piece;
-        tempBoard.squares[from.getRow()][from.getColumn()] = null;
-        
-        return !tempBoard.isInCheck(piece.getColor());
+        return !simulateInCheck(piece, from, to);
+    }
+
+    /**
+     * Plays a move in place, tests whether the mover's king is left in
+     * check, and takes the move back. Bypasses the analysis cache so the
+     * simulated position never evicts facts about the real one.
+     */
+    private boolean simulateInCheck(Piece piece, Position from, Position to) {
+        Piece captured = getPiece(to);
+        setSquare(to.getRow(), to.getColumn(), piece);
+        setSquare(from.getRow(), from.getColumn(), null);
+        boolean inCheck = computeInCheck(piece.getColor());
+        setSquare(from.getRow(), from.getColumn(), piece);
+        setSquare(to.getRow(), to.getColumn(), captured);
+        return inCheck;
     }
     
     /**
      * Creates a deep copy of the board for move simulation.
      */
     public Board copyBoard() {
-        Board copy = new Board();
+        Counter.BOARD_COPIES.increment();
+        Board copy = new Board(false);
         for (int row = 0; row < BOARD_SIZE; row++) {
             for (int col = 0; col < BOARD_SIZE; col++) {
                 Piece original = this.squares[row][col];
                 if (original != null) {
-                    copy.squares[row][col] = createPieceCopy(original);
+                    copy.setSquare(row, col, createPieceCopy(original));
                 }
             }
         }
@@ -198,53 +579,236 @@ public class Board {
      * Finds the king of the specified color.
      */
     private Position findKing(String color) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece piece = squares[row][col];
-                if (piece != null && 
-                    piece instanceof pieces.King && 
-                    piece.getColor().equals(color)) {
-                    return new Position(row, col);
-                }
-            }
-        }
-        return null;
+        long king = pieceBitboards[KING * 2 + colorIndex(color)];
+        return king == 0 ? null : Position.fromIndex(Long.numberOfTrailingZeros(king));
     }
 
     /**
      * Checks if a move would expose the king to check.
      */
     public boolean wouldMoveExposeCheck(Position from, Position to) {
-        Board tempBoard = copyBoard();
-        tempBoard.movePiece(from, to);
-        return tempBoard.isInCheck(getPiece(from).getColor());
+        return simulateInCheck(getPiece(from), from, to);
     }
 
     // Helper methods for move validation
     public boolean isPathClear(Position from, Position to) {
-        int rowDiff = to.getRow() - from.getRow();
-        int colDiff = to.getColumn() - from.getColumn();
+        return (AttackTables.between(from.toIndex(), to.toIndex()) & occupied) == 0;
+    }
 
-        int rowStep = Integer.signum(rowDiff);
-        int colStep = Integer.signum(colDiff);
+    public void placePiece(Piece piece, Position pos) {
+        setSquare(pos.getRow(), pos.getColumn(), piece);
+        piece.setPosition(pos);
 
-        int currentRow = from.getRow() + rowStep;
-        int currentCol = from.getColumn() + colStep;
+        if (!listeners.isEmpty()) {
+            for (BoardListener listener : listeners) {
+                listener.squareChanged(pos.toIndex(), piece);
+            }
+            publishCheckChanges();
+        }
+    }
 
-        while (currentRow != to.getRow() || currentCol != to.getColumn()) {
-            if (getPiece(new Position(currentRow, currentCol)) != null) {
-                return false;
+    /**
+     * Removes every piece from the board.
+     */
+    public void clear() {
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            setSquare(square, null);
+            for (BoardListener listener : listeners) {
+                listener.squareChanged(square, null);
             }
-            currentRow += rowStep;
-            currentCol += colStep;
         }
+        undoCount = 0;
+        if (!listeners.isEmpty()) {
+            publishCheckChanges();
+        }
+    }
 
-        return true;
+    // Bit set based access used by the search engine
+
+    /**
+     * Returns the type code (PAWN..KING) of the piece on a square, or -1
+     * if the square is empty.
+     */
+    public int getPieceType(int square) {
+        Piece piece = squares[square / BOARD_SIZE][square % BOARD_SIZE];
+        return piece == null ? -1 : pieceIndex(piece) >> 1;
     }
 
-    public void placePiece(Piece piece, Position pos) {
-        squares[pos.getRow()][pos.getColumn()] = piece;
-        piece.setPosition(pos);
+    /**
+     * Returns the squares holding pieces of the given type and color.
+     */
+    public long getBitboard(int type, String color) {
+        return pieceBitboards[type * 2 + colorIndex(color)];
+    }
+
+    /**
+     * Returns the squares holding any piece of the given color.
+     */
+    public long getPieces(String color) {
+        return sideOccupancy[colorIndex(color)];
+    }
+
+    /**
+     * Fills the array with every legal move for the given color, encoded
+     * with {@link Move}, and returns how many were written. King moves come
+     * first. The array must hold at least 256 moves.
+     */
+    public int generateMoves(String color, int[] moves) {
+        return generateMoves(colorIndex(color), moves, false);
+    }
+
+    /**
+     * Like {@link #generateMoves(String, int[])} but only returns captures.
+     */
+    public int generateCaptures(String color, int[] moves) {
+        return generateMoves(colorIndex(color), moves, true);
+    }
+
+    private int generateMoves(int side, int[] moves, boolean capturesOnly) {
+        long own = sideOccupancy[side];
+        long enemy = sideOccupancy[side ^ 1];
+        long targetMask = capturesOnly ? enemy : ~own;
+        int count = 0;
+
+        for (int type = KING; type >= PAWN; type--) {
+            int kind = type * 2 + side;
+            long remaining = pieceBitboards[kind];
+            while (remaining != 0) {
+                int from = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+
+                long targets;
+                switch (type) {
+                    case PAWN: targets = pawnTargets(from, side, enemy, capturesOnly); break;
+                    case KNIGHT: targets = AttackTables.knightAttacks(from); break;
+                    case BISHOP: targets = AttackTables.bishopAttacks(from, occupied); break;
+                    case ROOK: targets = AttackTables.rookAttacks(from, occupied); break;
+                    case QUEEN: targets = AttackTables.queenAttacks(from, occupied); break;
+                    default: targets = AttackTables.kingAttacks(from); break;
+                }
+                targets &= targetMask;
+
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    if (leavesKingSafe(kind, from, to, side)) {
+                        moves[count++] = Move.of(from, to);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private long pawnTargets(int from, int side, long enemy, boolean capturesOnly) {
+        long targets = AttackTables.pawnAttacks(side, from) & enemy;
+        if (capturesOnly) {
+            return targets;
+        }
+        int step = side == 0 ? -BOARD_SIZE : BOARD_SIZE;
+        int one = from + step;
+        if (one >= 0 && one < BOARD_SIZE * BOARD_SIZE && (occupied & (1L << one)) == 0) {
+            targets |= 1L << one;
+            int startRow = side == 0 ? 6 : 1;
+            if (from / BOARD_SIZE == startRow && (occupied & (1L << (one + step))) == 0) {
+                targets |= 1L << (one + step);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Returns true if the move, produced by {@link #generateMoves}, would
+     * put the opponent in check, directly or by uncovering a line. Like
+     * the legality test, it only updates the bit sets the attack test
+     * reads, so it is much cheaper than making the move.
+     */
+    public boolean givesCheck(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = squares[from / BOARD_SIZE][from % BOARD_SIZE];
+        int kind = pieceIndex(piece);
+        int side = kind & 1;
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        Piece captured = squares[to / BOARD_SIZE][to % BOARD_SIZE];
+        int capturedKind = captured == null ? -1 : pieceIndex(captured);
+        long savedOccupied = occupied;
+
+        pieceBitboards[kind] ^= fromBit | toBit;
+        if (capturedKind >= 0) pieceBitboards[capturedKind] ^= toBit;
+        occupied = (occupied & ~fromBit) | toBit;
+
+        boolean check = computeInCheck(side ^ 1);
+
+        occupied = savedOccupied;
+        if (capturedKind >= 0) pieceBitboards[capturedKind] ^= toBit;
+        pieceBitboards[kind] ^= fromBit | toBit;
+        return check;
+    }
+
+    /**
+     * Tests a pseudo-legal move by updating only the bit sets the attack
+     * test reads, then restoring them.
+     */
+    private boolean leavesKingSafe(int kind, int from, int to, int side) {
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        Piece captured = squares[to / BOARD_SIZE][to % BOARD_SIZE];
+        int capturedKind = captured == null ? -1 : pieceIndex(captured);
+        long savedOccupied = occupied;
+
+        pieceBitboards[kind] ^= fromBit | toBit;
+        if (capturedKind >= 0) pieceBitboards[capturedKind] ^= toBit;
+        occupied = (occupied & ~fromBit) | toBit;
+
+        boolean safe = !computeInCheck(side);
+
+        occupied = savedOccupied;
+        if (capturedKind >= 0) pieceBitboards[capturedKind] ^= toBit;
+        pieceBitboards[kind] ^= fromBit | toBit;
+        return safe;
+    }
+
+    /**
+     * Plays a move produced by {@link #generateMoves} without validating
+     * it. Every call must be paired with {@link #unmakeMove()}.
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = squares[from / BOARD_SIZE][from % BOARD_SIZE];
+        Piece captured = squares[to / BOARD_SIZE][to % BOARD_SIZE];
+
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, undoCount * 2);
+        }
+        undoMoves[undoCount] = move;
+        undoCaptured[undoCount] = captured;
+        undoCount++;
+
+        setSquare(to, piece);
+        setSquare(from, null);
+        piece.setPosition(SQUARE_POSITIONS[to]);
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}.
+     */
+    public void unmakeMove() {
+        undoCount--;
+        int move = undoMoves[undoCount];
+        Piece captured = undoCaptured[undoCount];
+        undoCaptured[undoCount] = null;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = squares[to / BOARD_SIZE][to % BOARD_SIZE];
+        setSquare(from, piece);
+        setSquare(to, captured);
+        piece.setPosition(SQUARE_POSITIONS[from]);
     }
 
     // Board display for console mode
@@ -0,0 +1,39 @@
+package board;
+
+import pieces.Piece;
+
+/**
+ * Receives changes to a {@link Board} as they happen, so views, spectators
+ * and loggers can update incrementally instead of rescanning all 64 squares.
+ * 
+ * Events are published for game-level changes (movePiece, placePiece and
+ * clear). Search-internal makeMove/unmakeMove and the temporary moves used
+ * for legality checks are not reported. Listeners are called on the thread
+ * that changed the board, after the change is complete.
+ * 
+ * @author Abheek Pradhan
+ */
+public interface BoardListener {
+    /**
+     * Called when the contents of a square change.
+     * 
+     * @param square Square index, {@code row * 8 + column}
+     * @param piece The new occupant, or null if the square is now empty
+     */
+    default void squareChanged(int square, Piece piece) {
+    }
+
+    /**
+     * Called when a move removes an opposing piece from the board.
+     */
+    default void pieceCaptured(Piece captured) {
+    }
+
+    /**
+     * Called when a king enters or leaves check.
+     * 
+     * @param color The color of the king, "white" or "black"
+     */
+    default void checkChanged(String color, boolean inCheck) {
+    }
+}
@@ -0,0 +1,115 @@
+package board;
+
+import pieces.Piece;
+import utils.Position;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ * Only piece placement and side to move are used; castling, en passant
+ * and move counters are accepted but ignored since the board does not
+ * model those rules.
+ * 
+ * @author Abheek Pradhan
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Clears the board and sets up the position described by the FEN text.
+     * 
+     * @return The side to move, "white" or "black"
+     * @throws IllegalArgumentException if the placement field is malformed
+     */
+    public static String load(Board board, String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 ranks: " + fen);
+        }
+
+        board.clear();
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char c : ranks[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                if (col > 7) {
+                    throw new IllegalArgumentException("Rank too long in FEN: " + fen);
+                }
+                Position pos = new Position(row, col);
+                board.placePiece(createPiece(c, pos), pos);
+                col++;
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Rank " + (8 - row) + " has " + col + " squares in FEN: " + fen);
+            }
+        }
+        return fields.length > 1 && fields[1].equals("b") ? "black" : "white";
+    }
+
+    /**
+     * Creates a board from FEN text. The side to move is discarded;
+     * use {@link #load} when it matters.
+     */
+    public static Board parse(String fen) {
+        Board board = Board.empty();
+        load(board, fen);
+        return board;
+    }
+
+    /**
+     * Describes the board and side to move as FEN text.
+     */
+    public static String toFen(Board board, String sideToMove) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPiece(new Position(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(symbol(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < 7) {
+                fen.append('/');
+            }
+        }
+        fen.append(sideToMove.equals("black") ? " b" : " w").append(" - - 0 1");
+        return fen.toString();
+    }
+
+    /**
+     * Returns the FEN letter for a piece: upper case for white.
+     */
+    public static char symbol(Piece piece) {
+        char letter = piece instanceof pieces.Knight ? 'n' : piece.getClass().getSimpleName().toLowerCase().charAt(0);
+        return piece.getColor().equals("white") ? Character.toUpperCase(letter) : letter;
+    }
+
+    private static Piece createPiece(char symbol, Position pos) {
+        String color = Character.isUpperCase(symbol) ? "white" : "black";
+        switch (Character.toLowerCase(symbol)) {
+            case 'k': return new pieces.King(color, pos);
+            case 'q': return new pieces.Queen(color, pos);
+            case 'r': return new pieces.Rook(color, pos);
+            case 'b': return new pieces.Bishop(color, pos);
+            case 'n': return new pieces.Knight(color, pos);
+            case 'p': return new pieces.Pawn(color, pos);
+            default: throw new IllegalArgumentException("Unknown piece '" + symbol + "' in FEN");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package board;
+
+/**
+ * Describes the state of a game from the perspective of the side to move.
+ * 
+ * @author Abheek Pradhan
+ */
+public enum GameStatus {
+    /** The side to move has legal moves and is not in check. */
+    ONGOING,
+    /** The side to move is in check but has at least one legal reply. */
+    CHECK,
+    /** The side to move is in check and has no legal reply. */
+    CHECKMATE,
+    /** The side to move is not in check but has no legal move. */
+    STALEMATE,
+    /** Neither side has enough material left to deliver mate. */
+    INSUFFICIENT_MATERIAL;
+
+    /**
+     * Returns true if this status ends the game.
+     */
+    public boolean isGameOver() {
+        return this == CHECKMATE || this == STALEMATE || this == INSUFFICIENT_MATERIAL;
+    }
+}
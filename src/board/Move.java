@@ -0,0 +1,106 @@
+package board;
+
+/**
+ * Compact 16-bit encoding of a move: the from-square in the low six
+ * bits, the to-square in the next six, then two bits of flags and two
+ * for the piece a pawn promotes to. Squares use the board's
+ * {@code row * 8 + column} index, so A8 is 0 and H1 is 63.
+ *
+ * Every move fits in a short. Moves from the move generator are plain
+ * moves with no flags set, so they are just the two squares.
+ * 
+ * @author Abheek Pradhan
+ */
+public final class Move {
+    /** Marker for "no move". Never produced for a real move. */
+    public static final int NONE = 0;
+
+    // Flags in bits 12 and 13
+    public static final int NORMAL = 0;
+    public static final int PROMOTION = 1 << 12;
+    public static final int EN_PASSANT = 2 << 12;
+    public static final int CASTLING = 3 << 12;
+
+    private static final int FLAG_MASK = 3 << 12;
+    private static final int PROMOTION_SHIFT = 14;
+    private static final String PROMOTION_LETTERS = "nbrq";
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    /**
+     * Encodes a pawn move that promotes to the given piece type, from
+     * {@link Board#KNIGHT} to {@link Board#QUEEN}.
+     */
+    public static int promotion(int from, int to, int pieceType) {
+        return of(from, to) | PROMOTION | (pieceType - Board.KNIGHT) << PROMOTION_SHIFT;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Returns one of {@link #NORMAL}, {@link #PROMOTION},
+     * {@link #EN_PASSANT} or {@link #CASTLING}.
+     */
+    public static int flags(int move) {
+        return move & FLAG_MASK;
+    }
+
+    /**
+     * Returns the type a promotion promotes to, or -1 for other moves.
+     */
+    public static int promotionType(int move) {
+        return flags(move) == PROMOTION ? Board.KNIGHT + ((move >>> PROMOTION_SHIFT) & 3) : -1;
+    }
+
+    /**
+     * Formats a move in long algebraic notation as used by UCI, e.g.
+     * "e2e4", or "e7e8q" for a promotion.
+     */
+    public static String toUci(int move) {
+        String squares = squareName(from(move)) + squareName(to(move));
+        int promoted = promotionType(move);
+        return promoted < 0 ? squares : squares + PROMOTION_LETTERS.charAt(promoted - Board.KNIGHT);
+    }
+
+    /**
+     * Parses a move in long algebraic notation, returning {@link #NONE} if
+     * the text is not a well-formed move. Legality is not checked. A
+     * promotion letter is ignored: the board does not promote pawns, so
+     * the move generator produces the plain move.
+     */
+    public static int fromUci(String text) {
+        if (text == null || text.length() < 4) {
+            return NONE;
+        }
+        int from = squareIndex(text.charAt(0), text.charAt(1));
+        int to = squareIndex(text.charAt(2), text.charAt(3));
+        if (from < 0 || to < 0 || from == to) {
+            return NONE;
+        }
+        return of(from, to);
+    }
+
+    public static String squareName(int square) {
+        return "" + (char) ('a' + square % 8) + (8 - square / 8);
+    }
+
+    private static int squareIndex(char file, char rank) {
+        int col = Character.toLowerCase(file) - 'a';
+        int row = 8 - (rank - '0');
+        if (col < 0 || col > 7 || row < 0 || row > 7) {
+            return -1;
+        }
+        return row * 8 + col;
+    }
+}
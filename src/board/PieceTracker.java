@@ -0,0 +1,26 @@
+package board;
+
+/**
+ * Follows every piece added to or removed from a {@link Board}, including
+ * the search's makeMove and unmakeMove, so state derived from the piece
+ * placement can be updated a piece at a time instead of recomputed.
+ * 
+ * Unlike {@link BoardListener} this sees every change, so implementations
+ * must be cheap. Calls happen on the thread changing the board.
+ * 
+ * @author Abheek Pradhan
+ */
+public interface PieceTracker {
+    /**
+     * Called when a piece appears on a square.
+     * 
+     * @param kind Piece kind, {@code type * 2 + side} with white as side 0
+     * @param square Square index, {@code row * 8 + column}
+     */
+    void pieceAdded(int kind, int square);
+
+    /**
+     * Called when a piece leaves a square.
+     */
+    void pieceRemoved(int kind, int square);
+}
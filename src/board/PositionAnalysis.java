@@ -0,0 +1,33 @@
+package board;
+
+import utils.Position;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facts derived from a single board position, computed on demand and
+ * remembered until the position changes. Arrays are indexed by side,
+ * white first.
+ * 
+ * @author Abheek Pradhan
+ */
+class PositionAnalysis {
+    long key;
+    final Boolean[] inCheck = new Boolean[2];
+    final GameStatus[] status = new GameStatus[2];
+    final long[] attacks = new long[2];
+    final boolean[] attacksKnown = new boolean[2];
+    final Map<Position, List<Position>> legalMoves = new HashMap<>();
+
+    /**
+     * Forgets everything and starts tracking the position with the given key.
+     */
+    void reset(long key) {
+        this.key = key;
+        inCheck[0] = inCheck[1] = null;
+        status[0] = status[1] = null;
+        attacksKnown[0] = attacksKnown[1] = false;
+        legalMoves.clear();
+    }
+}
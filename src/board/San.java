@@ -0,0 +1,145 @@
+package board;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation, such as "Nf3",
+ * "exd5" or "Rad1+".
+ *
+ * Both directions work from the legal moves of the position, which the
+ * caller has usually generated already: a piece needs a file or rank
+ * added only when another legal move of the same piece type reaches the
+ * same square. The check suffix is left to the caller as well, since
+ * telling "+" from "#" needs the next position's legal moves. Castling
+ * and promotion are not modelled by the board, so they are never
+ * written and "O-O" is never read.
+ *
+ * @author Abheek Pradhan
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    /**
+     * Formats a legal move without a check suffix.
+     *
+     * @param legal The position's legal moves, from {@link Board#generateMoves}
+     * @param count How many of them there are
+     */
+    public static String toSan(Board board, int move, int[] legal, int count) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = board.getPieceType(from);
+        boolean capture = board.getPieceType(to) >= 0;
+        StringBuilder san = new StringBuilder(7);
+
+        if (type == Board.PAWN) {
+            if (capture) {
+                san.append(fileLetter(from)).append('x');
+            }
+            return san.append(Move.squareName(to)).toString();
+        }
+
+        san.append(PIECE_LETTERS.charAt(type));
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = Move.from(legal[i]);
+            if (Move.to(legal[i]) == to && other != from && board.getPieceType(other) == type) {
+                ambiguous = true;
+                sameFile |= other % 8 == from % 8;
+                sameRank |= other / 8 == from / 8;
+            }
+        }
+        if (ambiguous) {
+            if (!sameFile) {
+                san.append(fileLetter(from));
+            } else if (!sameRank) {
+                san.append(rankDigit(from));
+            } else {
+                san.append(fileLetter(from)).append(rankDigit(from));
+            }
+        }
+        if (capture) {
+            san.append('x');
+        }
+        return san.append(Move.squareName(to)).toString();
+    }
+
+    /**
+     * Returns the legal move a SAN token names, or {@link Move#NONE} if
+     * it names none or more than one. Check, mate and annotation marks
+     * are ignored, as is a promotion suffix.
+     *
+     * @param legal The position's legal moves, from {@link Board#generateMoves}
+     * @param count How many of them there are
+     */
+    public static int parse(Board board, String token, int[] legal, int count) {
+        String san = token.replaceAll("[+#!?]+$", "");
+        int promotion = san.indexOf('=');
+        if (promotion >= 0) {
+            san = san.substring(0, promotion);
+        }
+        if (san.isEmpty()) {
+            return Move.NONE;
+        }
+
+        int type = PIECE_LETTERS.indexOf(san.charAt(0));
+        if (type >= 0) {
+            san = san.substring(1);
+        } else {
+            type = Board.PAWN;
+        }
+        if (san.length() < 2) {
+            return Move.NONE;
+        }
+        int to = squareIndex(san.substring(san.length() - 2));
+        if (to < 0) {
+            return Move.NONE;
+        }
+        // What remains is a file and/or rank naming the origin, and "x"
+        String origin = san.substring(0, san.length() - 2).replace("x", "");
+        int file = -1;
+        int rank = -1;
+        for (char c : origin.toCharArray()) {
+            if (c >= 'a' && c <= 'h') {
+                file = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                rank = 8 - (c - '0');
+            } else {
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int from = Move.from(legal[i]);
+            if (Move.to(legal[i]) == to && board.getPieceType(from) == type
+                    && (file < 0 || from % 8 == file) && (rank < 0 || from / 8 == rank)) {
+                if (found != Move.NONE) {
+                    return Move.NONE;
+                }
+                found = legal[i];
+            }
+        }
+        return found;
+    }
+
+    private static char fileLetter(int square) {
+        return (char) ('a' + square % 8);
+    }
+
+    private static char rankDigit(int square) {
+        return (char) ('0' + 8 - square / 8);
+    }
+
+    private static int squareIndex(String name) {
+        char file = name.charAt(0);
+        char rank = name.charAt(1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (8 - (rank - '0')) * 8 + (file - 'a');
+    }
+}
@@ -0,0 +1,295 @@
+package engine;
+
+import board.Board;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search results kept on disk between sessions, so positions analysed
+ * once start warm the next time the program runs.
+ *
+ * The cache is a fixed-size file mapped into memory: a 64-byte header
+ * and then buckets of four 16-byte slots. Like the
+ * {@link TranspositionTable}, a slot holds the packed entry and the
+ * position key XORed with it, so racing threads need no lock. Each entry
+ * also records the session that last used it. A new result replaces the
+ * slot that is least valuable, scored by depth minus age, so results
+ * that are shallow and have not been looked at for several sessions go
+ * first.
+ *
+ * Entries are stored under the position key XORed with the fingerprint
+ * of the evaluator that produced them, so the built-in tables, a tuned
+ * weights file and a neural network each see only their own results.
+ *
+ * Writes go straight to the mapped file and reach the disk even if the
+ * program exits without {@link #close()}.
+ *
+ * @author Abheek Pradhan
+ */
+public class AnalysisCache implements Closeable {
+    /** System property naming the cache file used by {@link #openDefault()}. */
+    public static final String PATH_PROPERTY = "chess.cache";
+    public static final String DEFAULT_PATH = "analysis.cache";
+    public static final int DEFAULT_MEGABYTES = 32;
+
+    private static final long MAGIC = 0x4A43414348453031L;
+    // Version 2 keys entries by evaluator as well as position
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    private static final int BUCKET_SLOTS = 4;
+    private static final int GENERATION_OFFSET = 16;
+    // Same side-to-move key as the search, so both agree on positions
+    private static final long SIDE_KEY = 0x9E3779B97F4A7C15L;
+    // Sessions a result is worth in plies of depth when choosing a victim
+    private static final int AGE_WEIGHT = 2;
+
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final int bucketMask;
+    private final int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    private AnalysisCache(Path path, MappedByteBuffer data, int buckets, int generation) {
+        this.path = path;
+        this.data = data;
+        this.bucketMask = buckets - 1;
+        this.generation = generation;
+    }
+
+    /**
+     * Opens the cache file, creating it with the given size if it does not
+     * exist or is not a cache. An existing cache keeps its size and
+     * contents, and counts as one session older.
+     */
+    public static AnalysisCache open(Path path, int megabytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int buckets = existingBuckets(channel);
+            boolean fresh = buckets == 0;
+            if (fresh) {
+                long wanted = Math.max(1, (long) megabytes * 1024 * 1024 / (SLOT_BYTES * BUCKET_SLOTS));
+                buckets = Integer.highestOneBit((int) Math.min(wanted, 1 << 24));
+                channel.truncate(0);
+            }
+            long size = HEADER_BYTES + (long) buckets * BUCKET_SLOTS * SLOT_BYTES;
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            int generation = fresh ? 0 : (data.getInt(GENERATION_OFFSET) + 1) & 0xFF;
+            data.putLong(0, MAGIC);
+            data.putInt(8, VERSION);
+            data.putInt(12, buckets);
+            data.putInt(GENERATION_OFFSET, generation);
+            return new AnalysisCache(path, data, buckets, generation);
+        }
+    }
+
+    /**
+     * Opens the cache named by {@link #PATH_PROPERTY}, or
+     * {@value #DEFAULT_PATH} in the working directory. Returns null, after
+     * saying why on standard error, if it cannot be opened; callers then
+     * simply run without one.
+     */
+    public static AnalysisCache openDefault() {
+        Path path = Paths.get(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+        try {
+            return open(path, DEFAULT_MEGABYTES);
+        } catch (IOException e) {
+            System.err.println("Analysis cache unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the bucket count of a valid cache file, or 0 if the file
+     * is empty, of another version or the wrong size.
+     */
+    private static int existingBuckets(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return 0;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        int buckets = header.getInt(12);
+        if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION
+                || buckets <= 0 || Integer.bitCount(buckets) != 1
+                || channel.size() != HEADER_BYTES + (long) buckets * BUCKET_SLOTS * SLOT_BYTES) {
+            return 0;
+        }
+        return buckets;
+    }
+
+    /**
+     * Returns the key a position is cached under.
+     */
+    public static long key(Board board, String sideToMove) {
+        return sideToMove.equals("white") ? board.getPositionKey() : board.getPositionKey() ^ SIDE_KEY;
+    }
+
+    /**
+     * Returns the packed entry for the position, or 0 if none is stored.
+     * A hit marks the entry as used in this session.
+     *
+     * @param evaluatorKey The fingerprint of the evaluator, from
+     *                     {@link Evaluator#getFingerprint()}
+     */
+    public long probe(Board board, String sideToMove, long evaluatorKey) {
+        long key = key(board, sideToMove) ^ evaluatorKey;
+        probes.increment();
+        int bucket = bucketOffset(key);
+        for (int i = 0; i < BUCKET_SLOTS; i++) {
+            int offset = bucket + i * SLOT_BYTES;
+            long entry = data.getLong(offset + 8);
+            if (entry != 0 && (data.getLong(offset) ^ entry) == key) {
+                hits.increment();
+                if (generation(entry) != generation) {
+                    write(offset, key, withGeneration(entry));
+                }
+                return entry;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result unless the cache already holds a deeper one
+     * for the position.
+     *
+     * @param evaluatorKey The fingerprint of the evaluator that searched
+     * @param score The score for the side to move, in centipawns
+     */
+    public void store(Board board, String sideToMove, long evaluatorKey, int move, int score, int depth) {
+        long key = key(board, sideToMove) ^ evaluatorKey;
+        int bucket = bucketOffset(key);
+        int same = -1;
+        int empty = -1;
+        int weakest = bucket;
+        int weakestValue = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_SLOTS; i++) {
+            int offset = bucket + i * SLOT_BYTES;
+            long entry = data.getLong(offset + 8);
+            if (entry == 0) {
+                if (empty < 0) {
+                    empty = offset;
+                }
+            } else if ((data.getLong(offset) ^ entry) == key) {
+                if (depth(entry) > depth) {
+                    return;
+                }
+                same = offset;
+            } else {
+                int age = (generation - generation(entry)) & 0xFF;
+                int value = depth(entry) - AGE_WEIGHT * age;
+                if (value < weakestValue) {
+                    weakest = offset;
+                    weakestValue = value;
+                }
+            }
+        }
+        int victim = same >= 0 ? same : empty >= 0 ? empty : weakest;
+        long entry = (move & 0xFFFFL)
+            | ((score + 0x8000L) & 0xFFFFL) << 16
+            | (Math.min(depth, 0xFF) & 0xFFL) << 32
+            | (long) generation << 40;
+        write(victim, key, entry);
+        stores.increment();
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int score(long entry) {
+        return (int) ((entry >>> 16) & 0xFFFF) - 0x8000;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFF);
+    }
+
+    private static int generation(long entry) {
+        return (int) ((entry >>> 40) & 0xFF);
+    }
+
+    private long withGeneration(long entry) {
+        return (entry & ~(0xFFL << 40)) | (long) generation << 40;
+    }
+
+    private int bucketOffset(long key) {
+        return HEADER_BYTES + ((int) (key >>> 32) & bucketMask) * BUCKET_SLOTS * SLOT_BYTES;
+    }
+
+    private void write(int offset, long key, long entry) {
+        data.putLong(offset + 8, entry);
+        data.putLong(offset, key ^ entry);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the size of the cache file in bytes.
+     */
+    public long getFileSize() {
+        return data.capacity();
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public int getSlots() {
+        return (bucketMask + 1) * BUCKET_SLOTS;
+    }
+
+    /**
+     * Counts the slots holding a result. Reads the whole file, so it is
+     * meant for reports rather than the search.
+     */
+    public int countUsedSlots() {
+        int used = 0;
+        for (int i = 0; i < getSlots(); i++) {
+            if (data.getLong(HEADER_BYTES + i * SLOT_BYTES + 8) != 0) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Describes the file and this session's hit rate in one line.
+     */
+    public String report() {
+        long probed = getProbes();
+        return String.format("Analysis cache %s: %.1f MB, %d of %d slots used, %d of %d lookups hit (%.1f%%), %d stored",
+            path, getFileSize() / (1024.0 * 1024.0), countUsedSlots(), getSlots(), getHits(), probed,
+            probed == 0 ? 0.0 : 100.0 * getHits() / probed, getStores());
+    }
+
+    /**
+     * Writes outstanding changes to the disk.
+     */
+    @Override
+    public void close() {
+        data.force();
+    }
+}
@@ -0,0 +1,296 @@
+package engine;
+
+import board.Board;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Static evaluation of a position: material plus piece-square bonuses.
+ * Scores are in centipawns from the point of view of the side to move.
+ * Tables are laid out from white's side with rank 8 first, matching the
+ * board's square index; black pieces read them mirrored.
+ * 
+ * The values can be saved to and loaded from a weights file, such as the
+ * one written by the tuner. New evaluators start from the file named by
+ * the {@value #WEIGHTS_PROPERTY} system property when it is set.
+ * 
+ * @author Abheek Pradhan
+ */
+public class Evaluator {
+    /** System property naming a weights file to start from. */
+    public static final String WEIGHTS_PROPERTY = "chess.weights";
+
+    private static final String[] TYPE_NAMES = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+
+    private static final int[] DEFAULT_MATERIAL = {100, 320, 330, 500, 900, 0};
+
+    private static final int[][] DEFAULT_PIECE_SQUARE = {
+        // Pawn
+        {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+        },
+        // Knight
+        {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+        },
+        // Bishop
+        {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+        },
+        // Rook
+        {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0
+        },
+        // Queen
+        {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+        },
+        // King
+        {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+        }
+    };
+
+    // Values every new evaluator starts from, read once at startup
+    private static final Evaluator STARTUP = startupWeights();
+
+    private final int[] material;
+    private final int[][] pieceSquare;
+    private final long fingerprint;
+
+    public Evaluator() {
+        this(STARTUP != null ? STARTUP.material : DEFAULT_MATERIAL,
+             STARTUP != null ? STARTUP.pieceSquare : DEFAULT_PIECE_SQUARE);
+    }
+
+    /**
+     * Creates an evaluator with the given values, which are copied.
+     * 
+     * @param material Value of each piece type, PAWN..KING
+     * @param pieceSquare Bonus per piece type and square, from white's side
+     * @throws IllegalArgumentException If an array has the wrong length
+     */
+    public Evaluator(int[] material, int[][] pieceSquare) {
+        if (material.length != TYPE_NAMES.length || pieceSquare.length != TYPE_NAMES.length) {
+            throw new IllegalArgumentException("Need values for " + TYPE_NAMES.length + " piece types");
+        }
+        this.material = material.clone();
+        this.pieceSquare = new int[pieceSquare.length][];
+        for (int type = 0; type < pieceSquare.length; type++) {
+            if (pieceSquare[type].length != 64) {
+                throw new IllegalArgumentException("Need 64 squares for " + TYPE_NAMES[type]);
+            }
+            this.pieceSquare[type] = pieceSquare[type].clone();
+        }
+        long hash = 0;
+        for (int value : this.material) {
+            hash = mix(hash, value);
+        }
+        for (int[] table : this.pieceSquare) {
+            for (int value : table) {
+                hash = mix(hash, value);
+            }
+        }
+        fingerprint = hash;
+    }
+
+    /**
+     * Reads a weights file written by {@link #save(Path)}: a "material"
+     * line with six values, then each piece type's name followed by its
+     * 64 square values. Lines starting with '#' are comments.
+     * 
+     * @throws IllegalArgumentException If the file is malformed
+     */
+    public static Evaluator load(Path path) throws IOException {
+        int[] material = null;
+        int[][] pieceSquare = new int[TYPE_NAMES.length][];
+        StringBuilder text = new StringBuilder();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.trim().startsWith("#")) {
+                text.append(line).append(' ');
+            }
+        }
+        String[] tokens = text.toString().trim().split("\\s+");
+        int index = 0;
+        try {
+            while (index < tokens.length) {
+                String name = tokens[index++];
+                if (name.equals("material")) {
+                    material = readValues(tokens, index, TYPE_NAMES.length);
+                    index += TYPE_NAMES.length;
+                    continue;
+                }
+                int type = Arrays.asList(TYPE_NAMES).indexOf(name);
+                if (type < 0) {
+                    throw new IllegalArgumentException("Unknown section \"" + name + "\" in " + path);
+                }
+                pieceSquare[type] = readValues(tokens, index, 64);
+                index += 64;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed weights file " + path, e);
+        }
+        if (material == null) {
+            throw new IllegalArgumentException("No material values in " + path);
+        }
+        for (int type = 0; type < pieceSquare.length; type++) {
+            if (pieceSquare[type] == null) {
+                throw new IllegalArgumentException("No " + TYPE_NAMES[type] + " table in " + path);
+            }
+        }
+        return new Evaluator(material, pieceSquare);
+    }
+
+    /**
+     * Writes the values in the format read by {@link #load(Path)}, each
+     * table as eight ranks from rank 8 down.
+     */
+    public void save(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# javaChess evaluation weights, centipawns, tables from white's side with rank 8 first");
+            writer.newLine();
+            writer.write("material");
+            for (int value : material) {
+                writer.write(" " + value);
+            }
+            writer.newLine();
+            for (int type = 0; type < TYPE_NAMES.length; type++) {
+                writer.write(TYPE_NAMES[type]);
+                writer.newLine();
+                for (int row = 0; row < 8; row++) {
+                    StringBuilder rank = new StringBuilder();
+                    for (int col = 0; col < 8; col++) {
+                        rank.append(String.format("%5d", pieceSquare[type][row * 8 + col]));
+                    }
+                    writer.write(rank.toString());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a hash of the values this evaluator scores with. Evaluators
+     * with the same fingerprint give the same scores, so results stored
+     * by one, as in the {@link AnalysisCache}, can be reused by the other.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Folds one value into a running 64-bit hash.
+     */
+    static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Returns the material value of a piece type (Board.PAWN..Board.KING).
+     */
+    public int getMaterialValue(int type) {
+        return material[type];
+    }
+
+    /**
+     * Returns the bonus for a piece type on a square, from white's side.
+     */
+    public int getPieceSquareValue(int type, int square) {
+        return pieceSquare[type][square];
+    }
+
+    /**
+     * Evaluates the position for the side to move.
+     */
+    public int evaluate(Board board, String sideToMove) {
+        int score = 0;
+        for (int type = Board.PAWN; type <= Board.KING; type++) {
+            long white = board.getBitboard(type, "white");
+            long black = board.getBitboard(type, "black");
+            score += material[type] * (Long.bitCount(white) - Long.bitCount(black));
+            int[] table = pieceSquare[type];
+            while (white != 0) {
+                score += table[Long.numberOfTrailingZeros(white)];
+                white &= white - 1;
+            }
+            while (black != 0) {
+                score -= table[Long.numberOfTrailingZeros(black) ^ 56];
+                black &= black - 1;
+            }
+        }
+        return sideToMove.equals("white") ? score : -score;
+    }
+
+    private static int[] readValues(String[] tokens, int from, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Integer.parseInt(tokens[from + i]);
+        }
+        return values;
+    }
+
+    /**
+     * Loads the weights file named by {@link #WEIGHTS_PROPERTY}, or
+     * returns null to use the built-in values.
+     */
+    private static Evaluator startupWeights() {
+        String path = System.getProperty(WEIGHTS_PROPERTY);
+        if (path == null) {
+            return null;
+        }
+        try {
+            return load(Paths.get(path));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot load weights " + path + " (" + e.getMessage() + "), using built-in values");
+            return null;
+        }
+    }
+}
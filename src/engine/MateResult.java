@@ -0,0 +1,87 @@
+package engine;
+
+import board.Move;
+
+/**
+ * The answer of a {@link MateSolver}: whether a forced mate within the
+ * requested number of moves was proven, refuted or left open, with the
+ * mating line when there is one.
+ *
+ * @author Abheek Pradhan
+ */
+public class MateResult {
+    /**
+     * What the solver established.
+     */
+    public enum Outcome {
+        /** The attacker mates within the move limit against any defence. */
+        MATE,
+        /** The defender survives the move limit whatever the attacker does. */
+        NO_MATE,
+        /** The node limit was reached first. */
+        UNKNOWN
+    }
+
+    private final Outcome outcome;
+    private final int mateIn;
+    private final int[] mateLine;
+    private final long nodes;
+    private final long timeMillis;
+
+    public MateResult(Outcome outcome, int mateIn, int[] mateLine, long nodes, long timeMillis) {
+        this.outcome = outcome;
+        this.mateIn = mateIn;
+        this.mateLine = mateLine;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns the move limit that was asked about.
+     */
+    public int getMateIn() {
+        return mateIn;
+    }
+
+    /**
+     * Returns the attacker's first move of the proven mate, or
+     * {@link Move#NONE} if there is none.
+     */
+    public int getKeyMove() {
+        return mateLine.length > 0 ? mateLine[0] : Move.NONE;
+    }
+
+    /**
+     * Returns one mating line, as far as the solver's table still holds
+     * it. Empty unless the outcome is {@link Outcome#MATE}.
+     */
+    public int[] getMateLine() {
+        return mateLine.clone();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Formats the mating line as space-separated UCI moves.
+     */
+    public String mateLineText() {
+        StringBuilder text = new StringBuilder();
+        for (int move : mateLine) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(Move.toUci(move));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,382 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import java.util.Arrays;
+
+/**
+ * Proves or refutes "mate in N" with depth-first proof-number search
+ * (df-pn). Unlike alpha-beta it needs no evaluation and never searches a
+ * line once one defence is known to hold, so it answers the yes/no mate
+ * question with far fewer nodes.
+ *
+ * Attacker nodes need one move that mates; defender nodes need every
+ * reply to lose. Each node carries a proof number (how many leaves must
+ * still be proven for a mate) and a disproof number (the same for an
+ * escape), and the search always descends into the most-proving child
+ * until a threshold is crossed. Every node is keyed by position and
+ * remaining plies, so lines never repeat and the table can be reused
+ * safely within one problem.
+ *
+ * Attacker moves are ordered checks first. On the attacker's last move
+ * only checks are tried. A defender position starts with its number of
+ * legal replies as its proof number, so forcing moves are looked at
+ * first. Terminal positions are recognised the way
+ * {@link Board#isCheckmate(String)} does: no legal move while in check.
+ *
+ * Memory is bounded by a fixed table of two-entry buckets. When a bucket
+ * is full, the entry that cost less work to compute is replaced.
+ *
+ * A solver is not thread-safe; use one per thread.
+ *
+ * @author Abheek Pradhan
+ */
+public class MateSolver {
+    public static final int MAX_MATE_IN = 32;
+
+    private static final int INFINITY = 100_000_000;
+    private static final int ENTRY_BYTES = 20;
+    private static final int MAX_PLIES = 2 * MAX_MATE_IN;
+
+    // Bounded proof table, one slot per index, two slots per bucket
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int[] work;
+    private final int mask;
+
+    private final int[][] moveBuffers = new int[MAX_PLIES + 1][256];
+    private final int[][] proofBuffers = new int[MAX_PLIES + 1][256];
+    private final int[][] disproofBuffers = new int[MAX_PLIES + 1][256];
+    private final int[] replies = new int[256];
+
+    private Board board;
+    private long nodeLimit;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * @param megabytes Size of the proof table
+     */
+    public MateSolver(int megabytes) {
+        long wanted = Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int size = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+        keys = new long[size];
+        proofs = new int[size];
+        disproofs = new int[size];
+        work = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Stops an unfinished proof after this many nodes; 0 means no limit.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Forgets every stored proof.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+    }
+
+    /**
+     * Decides whether the side to move can force mate within the given
+     * number of its own moves. The board is searched in place and left
+     * as it was found.
+     *
+     * @throws IllegalArgumentException If mateIn is not between 1 and
+     *         {@link #MAX_MATE_IN}
+     */
+    public MateResult solve(Board board, String attacker, int mateIn) {
+        if (mateIn < 1 || mateIn > MAX_MATE_IN) {
+            throw new IllegalArgumentException("Mate depth must be between 1 and " + MAX_MATE_IN);
+        }
+        long started = System.nanoTime();
+        this.board = board;
+        nodes = 0;
+        aborted = false;
+        clear();
+
+        int plies = 2 * mateIn - 1;
+        long root = mid(0, plies, true, attacker, INFINITY, INFINITY);
+        long elapsed = (System.nanoTime() - started) / 1_000_000L;
+
+        int proof = (int) (root >>> 32);
+        int disproof = (int) root;
+        if (proof == 0) {
+            return new MateResult(MateResult.Outcome.MATE, mateIn, mateLine(plies, attacker), nodes, elapsed);
+        }
+        MateResult.Outcome outcome = disproof == 0 ? MateResult.Outcome.NO_MATE : MateResult.Outcome.UNKNOWN;
+        return new MateResult(outcome, mateIn, new int[0], nodes, elapsed);
+    }
+
+    /**
+     * Returns the number of nodes visited by the last {@link #solve} call.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Multiple iterative deepening: searches the node until its proof or
+     * disproof number reaches the given threshold.
+     *
+     * @return The node's proof number in the high 32 bits and its
+     *         disproof number in the low 32 bits
+     */
+    private long mid(int ply, int pliesLeft, boolean attacking, String side, int proofLimit, int disproofLimit) {
+        nodes++;
+        if (nodeLimit > 0 && nodes >= nodeLimit) {
+            aborted = true;
+        }
+        long hash = hash(pliesLeft);
+        int[] moves = moveBuffers[ply];
+        int[] proof = proofBuffers[ply];
+        int[] disproof = disproofBuffers[ply];
+        String opponent = side.equals("white") ? "black" : "white";
+
+        int count = board.generateMoves(side, moves);
+        if (count == 0) {
+            // Mated or stalemated
+            boolean mated = board.isInCheck(side);
+            return store(hash, !attacking && mated ? 0 : INFINITY, !attacking && mated ? INFINITY : 0, 0);
+        }
+        if (pliesLeft <= 0) {
+            return store(hash, INFINITY, 0, 0);  // Out of moves without mate
+        }
+        if (attacking) {
+            count = initAttackerChildren(moves, proof, disproof, count, pliesLeft - 1, opponent);
+        } else {
+            initDefenderChildren(moves, proof, disproof, count, pliesLeft - 1);
+        }
+
+        long nodesBefore = nodes;
+        int nodeProof;
+        int nodeDisproof;
+        while (true) {
+            // An attacker node is proven by any child, a defender node by all
+            int best = 0;
+            int second = INFINITY;
+            if (attacking) {
+                nodeProof = INFINITY;
+                nodeDisproof = 0;
+                for (int i = 0; i < count; i++) {
+                    nodeDisproof = add(nodeDisproof, disproof[i]);
+                    if (proof[i] < nodeProof) {
+                        second = nodeProof;
+                        nodeProof = proof[i];
+                        best = i;
+                    } else if (proof[i] < second) {
+                        second = proof[i];
+                    }
+                }
+            } else {
+                nodeProof = 0;
+                nodeDisproof = INFINITY;
+                for (int i = 0; i < count; i++) {
+                    nodeProof = add(nodeProof, proof[i]);
+                    if (disproof[i] < nodeDisproof) {
+                        second = nodeDisproof;
+                        nodeDisproof = disproof[i];
+                        best = i;
+                    } else if (disproof[i] < second) {
+                        second = disproof[i];
+                    }
+                }
+            }
+            if (nodeProof >= proofLimit || nodeDisproof >= disproofLimit || aborted) {
+                break;
+            }
+
+            int childProofLimit;
+            int childDisproofLimit;
+            if (attacking) {
+                childProofLimit = Math.min(proofLimit, widen(second));
+                childDisproofLimit = subtract(disproofLimit, nodeDisproof, disproof[best]);
+            } else {
+                childProofLimit = subtract(proofLimit, nodeProof, proof[best]);
+                childDisproofLimit = Math.min(disproofLimit, widen(second));
+            }
+
+            board.makeMove(moves[best]);
+            long child = mid(ply + 1, pliesLeft - 1, !attacking, opponent, childProofLimit, childDisproofLimit);
+            board.unmakeMove();
+            proof[best] = (int) (child >>> 32);
+            disproof[best] = (int) child;
+        }
+        return store(hash, nodeProof, nodeDisproof, nodes - nodesBefore);
+    }
+
+    /**
+     * Orders the attacker's moves checks first and gives each the values
+     * of the defender position it leads to: from the table if known,
+     * otherwise from the defender's reply count. A reply count of zero
+     * is mate or stalemate and is settled right away.
+     *
+     * @return The number of moves worth trying
+     */
+    private int initAttackerChildren(int[] moves, int[] proof, int[] disproof, int count,
+                                     int childPlies, String defender) {
+        int checks = 0;
+        for (int i = 0; i < count; i++) {
+            if (board.givesCheck(moves[i])) {
+                int move = moves[i];
+                moves[i] = moves[checks];
+                moves[checks++] = move;
+            }
+        }
+        // Only a check can mate on the last move
+        if (childPlies == 0) {
+            count = checks;
+        }
+
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int slot = lookup(hash(childPlies));
+            if (slot >= 0) {
+                proof[i] = proofs[slot];
+                disproof[i] = disproofs[slot];
+            } else {
+                int replyCount = board.generateMoves(defender, replies);
+                if (replyCount == 0) {
+                    boolean mated = board.isInCheck(defender);
+                    proof[i] = mated ? 0 : INFINITY;
+                    disproof[i] = mated ? INFINITY : 0;
+                } else if (childPlies == 0) {
+                    proof[i] = INFINITY;
+                    disproof[i] = 0;
+                } else {
+                    proof[i] = replyCount;
+                    disproof[i] = 1;
+                }
+                // Remembered so the estimate is not recomputed when the search returns here
+                store(hash(childPlies), proof[i], disproof[i], 0);
+            }
+            board.unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * Gives each defender move the values of the attacker position it
+     * leads to, from the table if known and 1/1 otherwise.
+     */
+    private void initDefenderChildren(int[] moves, int[] proof, int[] disproof, int count, int childPlies) {
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int slot = lookup(hash(childPlies));
+            board.unmakeMove();
+            proof[i] = slot >= 0 ? proofs[slot] : 1;
+            disproof[i] = slot >= 0 ? disproofs[slot] : 1;
+        }
+    }
+
+    /**
+     * Follows proven children through the table: the attacker plays a
+     * proven move, the defender the reply with the largest stored proof.
+     * Stops early if an entry has been replaced.
+     */
+    private int[] mateLine(int plies, String attacker) {
+        int[] line = new int[plies];
+        int length = 0;
+        String side = attacker;
+        boolean attacking = true;
+        int[] moves = new int[256];
+        for (int pliesLeft = plies; pliesLeft > 0; pliesLeft--) {
+            int count = board.generateMoves(side, moves);
+            int chosen = Move.NONE;
+            int chosenWork = -1;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                boolean mate = board.generateMoves(side.equals("white") ? "black" : "white", replies) == 0
+                    && board.isInCheck(side.equals("white") ? "black" : "white");
+                int slot = lookup(hash(pliesLeft - 1));
+                board.unmakeMove();
+                boolean proven = mate || (slot >= 0 && proofs[slot] == 0);
+                int effort = mate ? 0 : slot >= 0 ? work[slot] : -1;
+                if (attacking && proven) {
+                    // Prefer the quickest proof
+                    if (chosen == Move.NONE || effort < chosenWork) {
+                        chosen = moves[i];
+                        chosenWork = effort;
+                    }
+                } else if (!attacking && proven && effort > chosenWork) {
+                    // Prefer the most stubborn defence
+                    chosen = moves[i];
+                    chosenWork = effort;
+                }
+            }
+            if (chosen == Move.NONE) {
+                break;
+            }
+            board.makeMove(chosen);
+            line[length++] = chosen;
+            side = side.equals("white") ? "black" : "white";
+            attacking = !attacking;
+            if (attacking && board.generateMoves(side, replies) == 0) {
+                break;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            board.unmakeMove();
+        }
+        return java.util.Arrays.copyOf(line, length);
+    }
+
+    private long hash(int pliesLeft) {
+        return board.getPositionKey() ^ (pliesLeft + 1) * 0x9E3779B97F4A7C15L;
+    }
+
+    private int lookup(long hash) {
+        int bucket = (int) hash & mask & ~1;
+        if (keys[bucket] == hash) {
+            return bucket;
+        }
+        if (keys[bucket + 1] == hash) {
+            return bucket + 1;
+        }
+        return -1;
+    }
+
+    private long store(long hash, int proof, int disproof, long effort) {
+        int bucket = (int) hash & mask & ~1;
+        int slot;
+        if (keys[bucket] == hash) {
+            slot = bucket;
+        } else if (keys[bucket + 1] == hash) {
+            slot = bucket + 1;
+        } else {
+            slot = work[bucket] <= work[bucket + 1] ? bucket : bucket + 1;
+        }
+        keys[slot] = hash;
+        proofs[slot] = proof;
+        disproofs[slot] = disproof;
+        work[slot] = (int) Math.min(Integer.MAX_VALUE, effort);
+        return (long) proof << 32 | disproof;
+    }
+
+    private static int add(int a, int b) {
+        return Math.min(INFINITY, a + b);
+    }
+
+    /**
+     * The threshold at which the search leaves the best child for the
+     * runner-up. Letting the best child run a quarter beyond the
+     * runner-up's value, instead of just one past it, avoids expanding
+     * the same nodes over and over when two children are close.
+     */
+    private static int widen(int second) {
+        return second >= INFINITY ? INFINITY : add(second + second / 4, 1);
+    }
+
+    /**
+     * Computes a child's threshold from the parent's, leaving an
+     * unbounded threshold unbounded.
+     */
+    private static int subtract(int limit, int total, int childValue) {
+        return limit >= INFINITY ? INFINITY : limit - total + childValue;
+    }
+}
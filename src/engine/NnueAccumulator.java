@@ -0,0 +1,102 @@
+package engine;
+
+import board.Board;
+import board.PieceTracker;
+
+/**
+ * The hidden layer sums of an {@link NnueNetwork} for one board, one
+ * int16 array per perspective. Installed as the board's
+ * {@link PieceTracker}, it hears of every piece added or removed and
+ * updates the sums by one row of feature weights each, so a move costs a
+ * few row updates instead of a full refresh.
+ *
+ * Updates are applied lazily, when the position is evaluated. Until then
+ * they wait in a short list where a removal cancels a pending addition of
+ * the same piece on the same square and vice versa, so a move that is
+ * made and taken back without an evaluation in between costs nothing,
+ * and neither does the part of a sibling move that undoes the previous one.
+ *
+ * @author Abheek Pradhan
+ */
+class NnueAccumulator implements PieceTracker {
+    private static final int MAX_PENDING = 32;
+
+    private final NnueNetwork network;
+    private final short[][] values;
+    private final int[] sums;
+
+    // Features waiting to be added to or removed from the sums
+    private final int[] pendingFeatures = new int[MAX_PENDING];
+    private final boolean[] pendingAdds = new boolean[MAX_PENDING];
+    private int pendingCount;
+
+    NnueAccumulator(NnueNetwork network, Board board) {
+        this.network = network;
+        int hidden = network.getHiddenSize();
+        values = new short[2][hidden];
+        sums = new int[network.getDenseSize()];
+        network.refresh(values[0], board, 0);
+        network.refresh(values[1], board, 1);
+    }
+
+    NnueNetwork getNetwork() {
+        return network;
+    }
+
+    @Override
+    public void pieceAdded(int kind, int square) {
+        queue(kind * 64 + square, true);
+    }
+
+    @Override
+    public void pieceRemoved(int kind, int square) {
+        queue(kind * 64 + square, false);
+    }
+
+    /**
+     * Evaluates the current position for the given side, 0 for white.
+     */
+    int evaluate(int side) {
+        if (pendingCount > 0) {
+            applyPending();
+        }
+        return network.forward(values[side], values[side ^ 1], sums);
+    }
+
+    /**
+     * Queues a change to the sums, cancelling it against an opposite
+     * change already waiting. Features are stored from white's perspective.
+     */
+    private void queue(int feature, boolean add) {
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingFeatures[i] == feature && pendingAdds[i] != add) {
+                pendingCount--;
+                pendingFeatures[i] = pendingFeatures[pendingCount];
+                pendingAdds[i] = pendingAdds[pendingCount];
+                return;
+            }
+        }
+        if (pendingCount == MAX_PENDING) {
+            applyPending();
+        }
+        pendingFeatures[pendingCount] = feature;
+        pendingAdds[pendingCount] = add;
+        pendingCount++;
+    }
+
+    private void applyPending() {
+        for (int i = 0; i < pendingCount; i++) {
+            int kind = pendingFeatures[i] >> 6;
+            int square = pendingFeatures[i] & 63;
+            for (int perspective = 0; perspective < 2; perspective++) {
+                int feature = NnueNetwork.feature(perspective, kind, square);
+                if (pendingAdds[i]) {
+                    network.addFeature(values[perspective], feature);
+                } else {
+                    network.removeFeature(values[perspective], feature);
+                }
+            }
+        }
+        pendingCount = 0;
+    }
+}
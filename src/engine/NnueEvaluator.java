@@ -0,0 +1,56 @@
+package engine;
+
+import board.Board;
+import board.PieceTracker;
+
+/**
+ * Evaluates positions with an {@link NnueNetwork} instead of the
+ * handcrafted tables. Material values for move ordering still come from
+ * {@link Evaluator}.
+ *
+ * The first evaluation of a board installs an {@link NnueAccumulator} as
+ * its piece tracker, which then follows every move the search makes.
+ * Later evaluations only run the small layers after the accumulators.
+ * Each search thread has its own board, so one evaluator can be shared.
+ *
+ * @author Abheek Pradhan
+ */
+public class NnueEvaluator extends Evaluator {
+    private final NnueNetwork network;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this.network = network;
+    }
+
+    public NnueNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the network's fingerprint, since the tables inherited from
+     * {@link Evaluator} do not affect the score.
+     */
+    @Override
+    public long getFingerprint() {
+        return network.getFingerprint();
+    }
+
+    @Override
+    public int evaluate(Board board, String sideToMove) {
+        return accumulatorFor(board).evaluate(sideToMove.equals("white") ? 0 : 1);
+    }
+
+    /**
+     * Returns the board's accumulator for this network, installing a
+     * freshly computed one if it has none.
+     */
+    private NnueAccumulator accumulatorFor(Board board) {
+        PieceTracker tracker = board.getPieceTracker();
+        if (tracker instanceof NnueAccumulator && ((NnueAccumulator) tracker).getNetwork() == network) {
+            return (NnueAccumulator) tracker;
+        }
+        NnueAccumulator accumulator = new NnueAccumulator(network, board);
+        board.setPieceTracker(accumulator);
+        return accumulator;
+    }
+}
@@ -0,0 +1,245 @@
+package engine;
+
+import board.Board;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The weights of an efficiently updatable neural network (NNUE) for
+ * evaluation, read from a file. Immutable once loaded, so one network is
+ * shared by every search thread.
+ *
+ * The input is 768 features per perspective, one for each piece kind
+ * ({@code type * 2 + side}) on each square. White sees the board as it
+ * is; black sees it with colors swapped and ranks mirrored, so both
+ * perspectives share one set of weights. Each perspective feeds a hidden
+ * layer whose int16 sums are the accumulators kept by
+ * {@link NnueAccumulator}. The two accumulators, side to move first, go
+ * through a clipped ReLU into a small dense layer, then a second clipped
+ * ReLU into the single output. With a dense size of 0 the clipped
+ * accumulators feed the output directly; that costs 2H multiplications
+ * per evaluation instead of 2H * L and suits the search best.
+ *
+ * The file is little-endian:
+ * <pre>
+ * int   magic "JCNN", version 1
+ * int   hidden size H, dense size L
+ * short feature weights [768][H]
+ * short feature biases [H]
+ * short dense weights [2H][L]
+ * int   dense biases [L]
+ * short output weights [L], or [2H] if L is 0
+ * int   output bias
+ * </pre>
+ * Activations are quantised to 0..{@value #QA} and dense and output
+ * weights to 1/{@value #QB}, so the output is in units of
+ * {@code QA * QB} and scaled to centipawns by {@value #OUTPUT_SCALE}.
+ *
+ * @author Abheek Pradhan
+ */
+public class NnueNetwork {
+    public static final int FEATURES = 768;
+    static final int QA = 255;
+    static final int QB = 64;
+    static final int OUTPUT_SCALE = 400;
+
+    private static final int MAGIC = 0x4E4E434A;
+    private static final int VERSION = 1;
+    private static final int MAX_HIDDEN = 4096;
+    private static final int MAX_DENSE = 256;
+
+    private final int hidden;
+    private final int dense;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] denseWeights;
+    private final int[] denseBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+    private final long fingerprint;
+
+    private NnueNetwork(ByteBuffer data) {
+        fingerprint = hash(data.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " network file");
+        }
+        hidden = data.getInt();
+        dense = data.getInt();
+        if (hidden < 1 || hidden > MAX_HIDDEN || dense < 0 || dense > MAX_DENSE) {
+            throw new IllegalArgumentException("Bad network shape " + hidden + "x" + dense);
+        }
+        long expected = 16L + 2L * FEATURES * hidden + 2L * hidden
+            + 2L * dense * 2 * hidden + 4L * dense + 2L * outputSize(hidden, dense) + 4;
+        if (data.capacity() != expected) {
+            throw new IllegalArgumentException("Network file should be " + expected
+                                               + " bytes, not " + data.capacity());
+        }
+
+        featureWeights = readShorts(data, FEATURES * hidden);
+        featureBiases = readShorts(data, hidden);
+        denseWeights = readShorts(data, dense * 2 * hidden);
+        denseBiases = new int[dense];
+        data.asIntBuffer().get(denseBiases);
+        data.position(data.position() + 4 * dense);
+        outputWeights = readShorts(data, outputSize(hidden, dense));
+        outputBias = data.getInt();
+    }
+
+    /**
+     * Loads a network by mapping the file into memory, so reading it
+     * costs no copy through an intermediate stream buffer.
+     *
+     * @throws IllegalArgumentException If the file is not a network
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new NnueNetwork(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Returns a hash of the whole network file; see
+     * {@link Evaluator#getFingerprint()}.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of accumulator values per perspective.
+     */
+    public int getHiddenSize() {
+        return hidden;
+    }
+
+    int getDenseSize() {
+        return dense;
+    }
+
+    /**
+     * Returns the feature a piece is seen as from one perspective.
+     *
+     * @param perspective 0 for white, 1 for black
+     */
+    static int feature(int perspective, int kind, int square) {
+        return perspective == 0 ? kind * 64 + square : (kind ^ 1) * 64 + (square ^ 56);
+    }
+
+    /**
+     * Adds a feature's weights to an accumulator.
+     */
+    void addFeature(short[] accumulator, int feature) {
+        int offset = feature * hidden;
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] += featureWeights[offset + i];
+        }
+    }
+
+    /**
+     * Subtracts a feature's weights from an accumulator.
+     */
+    void removeFeature(short[] accumulator, int feature) {
+        int offset = feature * hidden;
+        for (int i = 0; i < hidden; i++) {
+            accumulator[i] -= featureWeights[offset + i];
+        }
+    }
+
+    /**
+     * Sets one perspective's accumulator from scratch.
+     */
+    void refresh(short[] accumulator, Board board, int perspective) {
+        System.arraycopy(featureBiases, 0, accumulator, 0, hidden);
+        for (int kind = 0; kind < 12; kind++) {
+            long pieces = board.getBitboard(kind >> 1, (kind & 1) == 0 ? "white" : "black");
+            while (pieces != 0) {
+                addFeature(accumulator, feature(perspective, kind, Long.numberOfTrailingZeros(pieces)));
+                pieces &= pieces - 1;
+            }
+        }
+    }
+
+    /**
+     * Runs the layers after the accumulators.
+     *
+     * @param us The side to move's accumulator
+     * @param them The opponent's accumulator
+     * @param sums Scratch space for L values
+     * @return The score in centipawns for the side to move
+     */
+    int forward(short[] us, short[] them, int[] sums) {
+        if (dense == 0) {
+            long output = outputBias + dot(us, 0) + dot(them, hidden);
+            return (int) (output * OUTPUT_SCALE / (QA * QB));
+        }
+        System.arraycopy(denseBiases, 0, sums, 0, dense);
+        addActivations(us, 0, sums);
+        addActivations(them, hidden, sums);
+        long output = outputBias;
+        for (int j = 0; j < dense; j++) {
+            int value = Math.max(0, Math.min(QA, sums[j] / QB));
+            output += value * outputWeights[j];
+        }
+        return (int) (output * OUTPUT_SCALE / (QA * QB));
+    }
+
+    /**
+     * Adds one accumulator's clipped values times their dense weights to
+     * the sums. The clipped ReLU zeroes many of them, and a zero
+     * contributes nothing, so only the rows of active inputs are read.
+     */
+    private void addActivations(short[] accumulator, int firstInput, int[] sums) {
+        for (int i = 0; i < hidden; i++) {
+            int activation = Math.min(QA, (int) accumulator[i]);
+            if (activation <= 0) {
+                continue;
+            }
+            int offset = (firstInput + i) * dense;
+            for (int j = 0; j < dense; j++) {
+                sums[j] += activation * denseWeights[offset + j];
+            }
+        }
+    }
+
+    /**
+     * Multiplies one accumulator's clipped values by their output weights.
+     */
+    private int dot(short[] accumulator, int firstInput) {
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            int activation = Math.max(0, Math.min(QA, (int) accumulator[i]));
+            sum += activation * outputWeights[firstInput + i];
+        }
+        return sum;
+    }
+
+    private static int outputSize(int hidden, int dense) {
+        return dense == 0 ? 2 * hidden : dense;
+    }
+
+    private static long hash(ByteBuffer data) {
+        // Differs from any table evaluator's hash in the seed
+        long hash = Evaluator.mix(MAGIC, data.capacity());
+        data.position(0);
+        while (data.remaining() >= 8) {
+            hash = Evaluator.mix(hash, data.getLong());
+        }
+        while (data.hasRemaining()) {
+            hash = Evaluator.mix(hash, data.get());
+        }
+        return hash;
+    }
+
+    private static short[] readShorts(ByteBuffer data, int count) {
+        short[] values = new short[count];
+        data.asShortBuffer().get(values);
+        data.position(data.position() + 2 * count);
+        return values;
+    }
+}
@@ -0,0 +1,315 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import profiling.Counter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Iterative deepening alpha-beta search over a {@link Board}.
+ * With more than one thread, helper threads search the same position on
+ * their own board copies and share results only through the
+ * transposition table ("lazy SMP"); the main thread's result is used.
+ * A single Search runs one search at a time; {@link #stop()} may be
+ * called from any thread.
+ * 
+ * With an {@link AnalysisCache}, every finished search is remembered
+ * across sessions. A later search of the same position tries the
+ * remembered move first, and a fixed-depth search that was already done
+ * as deep returns the remembered result without searching.
+ * 
+ * @author Abheek Pradhan
+ */
+public class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 128;
+
+    private final TranspositionTable table;
+    private volatile Evaluator evaluator;
+    private volatile AnalysisCache analysisCache;
+    private int threads = 1;
+
+    private volatile boolean stopRequested;
+    // Published by the time manager; never later than its hard deadline
+    private volatile long stopDeadlineNanos;
+    private volatile long softDeadlineNanos;
+    private volatile TimeManager timeManager;
+    private volatile boolean pondering;
+    private volatile long searchesStarted;
+    private String rootSide;
+    private long nodeLimit;
+    private int multiPv = 1;
+    private long startNanos;
+    private volatile SearchWorker[] workers = new SearchWorker[0];
+
+    public Search() {
+        this(new TranspositionTable(16), new Evaluator());
+    }
+
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public AnalysisCache getAnalysisCache() {
+        return analysisCache;
+    }
+
+    /**
+     * Sets the cache to consult and fill from the next search on; null
+     * searches without one. A cache may be shared by several searches.
+     */
+    public void setAnalysisCache(AnalysisCache analysisCache) {
+        this.analysisCache = analysisCache;
+    }
+
+    /**
+     * Replaces the evaluation from the next search on.
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Asks a running search to finish as soon as possible. The search
+     * still returns the best move from its last completed iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Turns a ponder search into a normal one. The time budget the
+     * limits gave it starts counting now, and everything searched so far,
+     * including the hash table and the deepest completed iteration, is
+     * kept. Does nothing if the search is not pondering.
+     */
+    public void ponderHit() {
+        if (pondering) {
+            timeManager.start(System.nanoTime());
+            publishDeadlines();
+            pondering = false;
+        }
+    }
+
+    /**
+     * Like {@link #ponderHit()}, but budgets the time from fresh limits,
+     * for a caller whose clock readings changed while it pondered.
+     */
+    public void ponderHit(SearchLimits limits) {
+        if (pondering) {
+            timeManager.allocate(limits, rootSide);
+            ponderHit();
+        }
+    }
+
+    /**
+     * Counts the searches that have set their limits. {@link #stop()} and
+     * {@link #ponderHit()} only affect a search that has started, because
+     * starting resets them, so a thread that launched a search elsewhere
+     * can wait for this count to move before calling either.
+     */
+    public long getSearchesStarted() {
+        return searchesStarted;
+    }
+
+    /**
+     * Searches the position for the side to move until a limit is hit or
+     * {@link #stop()} is called. The main thread searches the given board
+     * in place and leaves it as it found it, so nothing else may touch the
+     * board until the search returns; helper threads work on copies.
+     * Per-thread search state is reused from one search to the next.
+     * 
+     * @param listener Receives the result of every completed iteration
+     *                 of the main thread, one per line when the limits ask
+     *                 for several principal variations; may be null
+     * @return The best move found, or a result with {@link Move#NONE} if
+     *         the side to move has no legal move
+     */
+    public SearchResult search(Board board, String sideToMove, SearchLimits limits,
+                               Consumer<SearchResult> listener) {
+        stopRequested = false;
+        startNanos = System.nanoTime();
+        rootSide = sideToMove;
+        timeManager = new TimeManager(limits, sideToMove);
+        // A ponder search has no deadline until ponderHit() starts its clock
+        pondering = limits.isPonder();
+        if (!pondering) {
+            timeManager.start(startNanos);
+        }
+        publishDeadlines();
+        nodeLimit = limits.getNodes();
+        multiPv = limits.getMultiPv();
+        searchesStarted++;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        AnalysisCache cache = analysisCache;
+        // Results are only shared between searches that evaluate alike
+        long evaluatorKey = evaluator.getFingerprint();
+        if (cache != null) {
+            SearchResult cached = probeCache(cache, board, sideToMove, limits, evaluatorKey);
+            if (cached != null) {
+                for (SearchWorker worker : workers) {
+                    worker.nodes = 0;
+                }
+                if (listener != null) {
+                    listener.accept(cached);
+                }
+                return cached;
+            }
+        }
+
+        SearchWorker[] current = workers;
+        if (current.length != threads) {
+            current = new SearchWorker[threads];
+            for (int i = 0; i < threads; i++) {
+                current[i] = new SearchWorker(this, i);
+            }
+            workers = current;
+        }
+        for (int i = 0; i < threads; i++) {
+            current[i].prepare(i == 0 ? board : board.copyBoard(), sideToMove);
+        }
+
+        List<Thread> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            SearchWorker helper = current[i];
+            Thread thread = new Thread(() -> helper.iterate(MAX_PLY - 1, null), "search-helper-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            helpers.add(thread);
+        }
+
+        SearchResult result = current[0].iterate(maxDepth, listener);
+
+        stopRequested = true;
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Counter.SEARCHES.increment();
+        Counter.NODES.add(getNodes());
+        Counter.SEARCH_NANOS.add(System.nanoTime() - startNanos);
+        if (cache != null && result.getBestMove() != Move.NONE && result.getDepth() > 0) {
+            cache.store(board, sideToMove, evaluatorKey, result.getBestMove(), result.getScore(), result.getDepth());
+        }
+        return result;
+    }
+
+    /**
+     * Looks the root up in the analysis cache. Returns the remembered
+     * result if it answers a fixed-depth search outright; otherwise seeds
+     * the hash table with it, so its move is searched first, and returns
+     * null. A remembered move that is not legal here is a key collision
+     * and ignored.
+     */
+    private SearchResult probeCache(AnalysisCache cache, Board board, String sideToMove, SearchLimits limits,
+                                    long evaluatorKey) {
+        long entry = cache.probe(board, sideToMove, evaluatorKey);
+        if (entry == 0) {
+            return null;
+        }
+        int move = AnalysisCache.move(entry);
+        int[] legal = new int[256];
+        int count = board.generateMoves(sideToMove, legal);
+        boolean found = false;
+        for (int i = 0; i < count && !found; i++) {
+            found = legal[i] == move;
+        }
+        if (!found) {
+            return null;
+        }
+        int score = AnalysisCache.score(entry);
+        int depth = AnalysisCache.depth(entry);
+        if (!pondering && multiPv == 1 && limits.getDepth() > 0 && depth >= limits.getDepth()) {
+            return new SearchResult(move, score, depth, 0, elapsedMillis(), new int[] {move});
+        }
+        table.store(AnalysisCache.key(board, sideToMove), move, score, depth, TranspositionTable.BOUND_EXACT);
+        return null;
+    }
+
+    /**
+     * Copies the time manager's deadlines into the fields the workers
+     * poll. Synchronized so a ponder hit and an iteration finishing at
+     * the same moment cannot publish out of order.
+     */
+    private synchronized void publishDeadlines() {
+        TimeManager manager = timeManager;
+        softDeadlineNanos = manager.iterationDeadline();
+        stopDeadlineNanos = manager.stopDeadline();
+    }
+
+    /**
+     * Total nodes searched by all threads in the current or last search.
+     */
+    public long getNodes() {
+        long total = 0;
+        for (SearchWorker worker : workers) {
+            total += worker.nodes;
+        }
+        return total;
+    }
+
+    long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    int getMultiPv() {
+        return multiPv;
+    }
+
+    long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    boolean isStopped() {
+        return stopRequested;
+    }
+
+    /**
+     * Called by the main thread after each completed iteration so the time
+     * manager can rescale the deadlines from the best move and score.
+     */
+    void iterationFinished(int depth, int bestMove, int score) {
+        timeManager.iterationFinished(depth, bestMove, score);
+        publishDeadlines();
+    }
+
+    /**
+     * Called by workers every few thousand nodes; raises the stop flag
+     * once the time manager's stop deadline or the node limit is reached.
+     * Neither applies while pondering.
+     */
+    void checkLimits() {
+        if (System.nanoTime() >= stopDeadlineNanos
+                || (nodeLimit > 0 && !pondering && getNodes() >= nodeLimit)) {
+            stopRequested = true;
+        }
+    }
+
+    boolean pastSoftDeadline() {
+        return System.nanoTime() >= softDeadlineNanos;
+    }
+}
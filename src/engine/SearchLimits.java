@@ -0,0 +1,159 @@
+package engine;
+
+/**
+ * Conditions under which a search stops: a fixed depth, node count or
+ * move time, or a time budget derived from the clock. Zero means "not
+ * set" for every field except the clock readings, which remember
+ * whether they were set: a clock that reads zero has run out, and
+ * still calls for a quick answer rather than no time limit.
+ * 
+ * @author Abheek Pradhan
+ */
+public class SearchLimits {
+    private int depth;
+    private long nodes;
+    private long moveTimeMillis;
+    private long whiteTimeMillis;
+    private long blackTimeMillis;
+    private boolean whiteTimeSet;
+    private boolean blackTimeSet;
+    private long whiteIncrementMillis;
+    private long blackIncrementMillis;
+    private int movesToGo;
+    private boolean infinite;
+    private int multiPv;
+    private boolean ponder;
+
+    public static SearchLimits depth(int depth) {
+        SearchLimits limits = new SearchLimits();
+        limits.setDepth(depth);
+        return limits;
+    }
+
+    public static SearchLimits moveTime(long millis) {
+        SearchLimits limits = new SearchLimits();
+        limits.setMoveTimeMillis(millis);
+        return limits;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public void setMoveTimeMillis(long moveTimeMillis) {
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public long getWhiteTimeMillis() {
+        return whiteTimeMillis;
+    }
+
+    public void setWhiteTimeMillis(long whiteTimeMillis) {
+        this.whiteTimeMillis = whiteTimeMillis;
+        this.whiteTimeSet = true;
+    }
+
+    /**
+     * Returns true if white's remaining time was given, even as zero.
+     */
+    public boolean hasWhiteTime() {
+        return whiteTimeSet;
+    }
+
+    public long getBlackTimeMillis() {
+        return blackTimeMillis;
+    }
+
+    public void setBlackTimeMillis(long blackTimeMillis) {
+        this.blackTimeMillis = blackTimeMillis;
+        this.blackTimeSet = true;
+    }
+
+    /**
+     * Returns true if black's remaining time was given, even as zero.
+     */
+    public boolean hasBlackTime() {
+        return blackTimeSet;
+    }
+
+    public long getWhiteIncrementMillis() {
+        return whiteIncrementMillis;
+    }
+
+    public void setWhiteIncrementMillis(long whiteIncrementMillis) {
+        this.whiteIncrementMillis = whiteIncrementMillis;
+    }
+
+    public long getBlackIncrementMillis() {
+        return blackIncrementMillis;
+    }
+
+    public void setBlackIncrementMillis(long blackIncrementMillis) {
+        this.blackIncrementMillis = blackIncrementMillis;
+    }
+
+    public int getMovesToGo() {
+        return movesToGo;
+    }
+
+    public void setMovesToGo(int movesToGo) {
+        this.movesToGo = movesToGo;
+    }
+
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    public void setInfinite(boolean infinite) {
+        this.infinite = infinite;
+    }
+
+    /**
+     * Number of best root moves to search and report each iteration;
+     * always at least 1.
+     */
+    public int getMultiPv() {
+        return Math.max(1, multiPv);
+    }
+
+    public void setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * True for a search of the position after the expected reply, made
+     * while the opponent is thinking. It ignores the time and node
+     * limits until {@link Search#ponderHit()} is called.
+     */
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+    }
+
+    /**
+     * Returns the time a typical move should take for the given side, or
+     * 0 if the search is not time limited. See {@link TimeManager}.
+     */
+    public long timeBudgetMillis(String sideToMove) {
+        return new TimeManager(this, sideToMove).getOptimumMillis();
+    }
+}
@@ -0,0 +1,108 @@
+package engine;
+
+import board.Move;
+
+/**
+ * Outcome of a completed search iteration: the best move, its score and
+ * principal variation, and how much work it took.
+ * 
+ * @author Abheek Pradhan
+ */
+public class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+    private final int multiPvIndex;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this(bestMove, score, depth, nodes, timeMillis, principalVariation, 1);
+    }
+
+    /**
+     * @param multiPvIndex Rank of this line among the lines searched,
+     *                     1 for the best move
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis,
+                        int[] principalVariation, int multiPvIndex) {
+        this.multiPvIndex = multiPvIndex;
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the opponent's expected reply, the second move of the
+     * principal variation, or {@link Move#NONE} if the line is too short.
+     */
+    public int getPonderMove() {
+        return principalVariation.length > 1 ? principalVariation[1] : Move.NONE;
+    }
+
+    public int getMultiPvIndex() {
+        return multiPvIndex;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes * 1000;
+    }
+
+    /**
+     * Returns true if the score is a forced mate for either side.
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Returns the number of moves to mate, negative when being mated.
+     */
+    public int getMateInMoves() {
+        int plies = Search.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+
+    /**
+     * Formats the principal variation as space-separated UCI moves.
+     */
+    public String principalVariationText() {
+        StringBuilder text = new StringBuilder();
+        for (int move : principalVariation) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(Move.toUci(move));
+        }
+        return text.toString();
+    }
+}
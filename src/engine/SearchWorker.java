@@ -0,0 +1,412 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import profiling.Counter;
+import profiling.SearchIterationEvent;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * One search thread: runs iterative deepening on its own board copy.
+ * All per-thread state (move buffers, killers, history, principal
+ * variation) lives here so workers never contend except through the
+ * shared transposition table.
+ * 
+ * @author Abheek Pradhan
+ */
+class SearchWorker {
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+    private static final long SIDE_KEY = 0x9E3779B97F4A7C15L;
+    private static final int MAX_MOVES = 256;
+
+    private final Search search;
+    private final int id;
+    private final TranspositionTable table;
+    private Evaluator evaluator;
+
+    private Board board;
+    private String rootSide;
+    private long nodeLimit;
+    long nodes;
+
+    private final int[][] moveBuffers = new int[Search.MAX_PLY + 1][MAX_MOVES];
+    private final int[][] moveScores = new int[Search.MAX_PLY + 1][MAX_MOVES];
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[][] history = new int[64][64];
+    private final int[][] pv = new int[Search.MAX_PLY + 1][Search.MAX_PLY + 1];
+    private final int[] pvLength = new int[Search.MAX_PLY + 1];
+    private final long[] keyStack = new long[Search.MAX_PLY + 1];
+
+    // Root moves already reported as better lines in this iteration
+    private final int[] excludedRootMoves = new int[MAX_MOVES];
+    private int excludedCount;
+
+    SearchWorker(Search search, int id) {
+        this.search = search;
+        this.id = id;
+        this.table = search.getTranspositionTable();
+    }
+
+    /**
+     * Points the worker at a new root position and forgets move ordering
+     * statistics from the previous search.
+     */
+    void prepare(Board board, String rootSide) {
+        this.board = board;
+        this.rootSide = rootSide.equals(WHITE) ? WHITE : BLACK;
+        this.evaluator = search.getEvaluator();
+        this.nodeLimit = search.getNodeLimit();
+        nodes = 0;
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    /**
+     * Deepens one ply at a time until the depth limit or a stop, keeping
+     * the result of the last fully searched iteration. With multi-PV, each
+     * iteration searches the root again for every extra line, leaving out
+     * the root moves of the lines already found.
+     */
+    SearchResult iterate(int maxDepth, Consumer<SearchResult> listener) {
+        SearchResult best = null;
+        int lines = id == 0 ? search.getMultiPv() : 1;
+        // Odd helpers start one ply deeper so threads spread over depths
+        int firstDepth = id % 2 == 1 ? 2 : 1;
+        long previousIterationNodes = 0;
+        deepening:
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            excludedCount = 0;
+            long nodesBefore = nodes;
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            for (int line = 1; line <= lines; line++) {
+                keyStack[0] = key(rootSide);
+                int score = negamax(depth, -Search.INFINITY, Search.INFINITY, 0, rootSide, false);
+                if (search.isStopped() && best != null) {
+                    break deepening;
+                }
+                if (pvLength[0] == 0) {
+                    if (line == 1) {
+                        break deepening;
+                    }
+                    break;  // Fewer legal moves than lines
+                }
+                SearchResult result = new SearchResult(pv[0][0], score, depth, search.getNodes(),
+                    search.elapsedMillis(), Arrays.copyOf(pv[0], pvLength[0]), line);
+                if (line == 1) {
+                    best = result;
+                }
+                if (listener != null) {
+                    listener.accept(result);
+                }
+                excludedRootMoves[excludedCount++] = pv[0][0];
+            }
+
+            long iterationNodes = nodes - nodesBefore;
+            double branchingFactor = previousIterationNodes > 0
+                ? (double) iterationNodes / previousIterationNodes : 0.0;
+            previousIterationNodes = iterationNodes;
+            if (id == 0) {
+                search.iterationFinished(depth, best.getBestMove(), best.getScore());
+                Counter.ITERATIONS.increment();
+                if (branchingFactor > 0) {
+                    Counter.BRANCHING_MILLIS.add(Math.round(branchingFactor * 1000));
+                    Counter.BRANCHING_SAMPLES.increment();
+                }
+                if (event.shouldCommit()) {
+                    event.depth = depth;
+                    event.score = best.getScore();
+                    event.nodes = iterationNodes;
+                    event.branchingFactor = branchingFactor;
+                    event.bestMove = Move.toUci(best.getBestMove());
+                    event.commit();
+                }
+            }
+            if (search.isStopped() || search.pastSoftDeadline()) {
+                break;
+            }
+        }
+        if (best == null) {
+            int count = board.generateMoves(rootSide, moveBuffers[0]);
+            int move = count > 0 ? moveBuffers[0][0] : Move.NONE;
+            best = new SearchResult(move, 0, 0, search.getNodes(), search.elapsedMillis(),
+                move == Move.NONE ? new int[0] : new int[] {move});
+        }
+        return best;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, String side, boolean nullAllowed) {
+        pvLength[ply] = ply;
+        if (ply > 0 && (board.isInsufficientMaterial() || isRepetition(ply))) {
+            return 0;
+        }
+        if (ply >= Search.MAX_PLY - 1) {
+            return evaluator.evaluate(board, side);
+        }
+
+        boolean inCheck = board.isInCheck(side);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply, side);
+        }
+
+        countNode();
+        if (search.isStopped()) {
+            return 0;
+        }
+
+        long key = keyStack[ply];
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        String opponent = side == WHITE ? BLACK : WHITE;
+        boolean pvNode = beta - alpha > 1;
+
+        // Null move: if passing still fails high, a real move will too
+        if (nullAllowed && !inCheck && !pvNode && depth >= 3 && hasPieces(side)
+                && evaluator.evaluate(board, side) >= beta) {
+            keyStack[ply + 1] = key ^ SIDE_KEY;
+            int score = -negamax(depth - 3, -beta, -beta + 1, ply + 1, opponent, false);
+            if (search.isStopped()) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] scores = moveScores[ply];
+        int count = board.generateMoves(side, moves);
+        if (count == 0) {
+            return inCheck ? -Search.MATE + ply : 0;
+        }
+        scoreMoves(moves, scores, count, ttMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -Search.INFINITY;
+        int bestMove = Move.NONE;
+        int searched = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, scores, i, count);
+            if (ply == 0 && isExcludedRootMove(move)) {
+                continue;
+            }
+            boolean capture = board.getPieceType(Move.to(move)) >= 0;
+
+            board.makeMove(move);
+            keyStack[ply + 1] = key(opponent);
+            int score;
+            if (searched++ == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, opponent, true);
+            } else {
+                // Principal variation search: prove the move is worse with a null window
+                score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, opponent, true);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, opponent, true);
+                }
+            }
+            board.unmakeMove();
+
+            if (search.isStopped()) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        if (!capture) {
+                            rememberQuietCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        // A root searched with moves left out must not overwrite the real entry
+        if (ply > 0 || excludedCount == 0) {
+            int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+            table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    private boolean isExcludedRootMove(int move) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (excludedRootMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches captures only until the position is quiet, so the static
+     * evaluation is never taken in the middle of an exchange.
+     */
+    private int quiesce(int alpha, int beta, int ply, String side) {
+        pvLength[ply] = ply;
+        countNode();
+        if (search.isStopped()) {
+            return 0;
+        }
+
+        int standPat = evaluator.evaluate(board, side);
+        if (ply >= Search.MAX_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int[] scores = moveScores[ply];
+        int count = board.generateCaptures(side, moves);
+        scoreMoves(moves, scores, count, Move.NONE, ply);
+
+        String opponent = side == WHITE ? BLACK : WHITE;
+        int bestScore = standPat;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, scores, i, count);
+            board.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1, opponent);
+            board.unmakeMove();
+
+            if (search.isStopped()) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Orders moves: hash move, then captures by most valuable victim and
+     * least valuable attacker, then killers, then quiet moves by history.
+     */
+    private void scoreMoves(int[] moves, int[] scores, int count, int ttMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int victim = board.getPieceType(Move.to(move));
+            if (move == ttMove) {
+                scores[i] = 1_000_000;
+            } else if (victim >= 0) {
+                int attacker = board.getPieceType(Move.from(move));
+                scores[i] = 100_000 + evaluator.getMaterialValue(victim) * 10 - attacker;
+            } else if (move == killers[ply][0]) {
+                scores[i] = 90_000;
+            } else if (move == killers[ply][1]) {
+                scores[i] = 80_000;
+            } else {
+                scores[i] = history[Move.from(move)][Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * Selection sort step: swaps the best remaining move into slot i.
+     */
+    private static int pickNext(int[] moves, int[] scores, int i, int count) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[i];
+        moves[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private void rememberQuietCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[Move.from(move)];
+        row[Move.to(move)] = Math.min(row[Move.to(move)] + depth * depth, 70_000);
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    private void countNode() {
+        nodes++;
+        if ((nodes & 2047) == 0 || nodes == nodeLimit) {
+            search.checkLimits();
+        }
+    }
+
+    private boolean isRepetition(int ply) {
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (keyStack[i] == keyStack[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPieces(String side) {
+        return (board.getBitboard(Board.KNIGHT, side) | board.getBitboard(Board.BISHOP, side)
+            | board.getBitboard(Board.ROOK, side) | board.getBitboard(Board.QUEEN, side)) != 0;
+    }
+
+    private long key(String side) {
+        return side == WHITE ? board.getPositionKey() : board.getPositionKey() ^ SIDE_KEY;
+    }
+
+    // Mate scores are stored relative to the node so they stay valid at any ply
+    private static int toTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score + ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score - ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,173 @@
+package engine;
+
+/**
+ * Decides how long one search may think under a chess clock.
+ *
+ * From the remaining time, increment and moves to go it derives two
+ * budgets: an optimum, the time a typical move should take, and a
+ * maximum that is never exceeded. A small reserve for communication lag
+ * is always left on the clock, and no single move may stake more than
+ * half of what remains unless it is the last move before the time control.
+ * A clock that was given but has run out still gets a budget of a few
+ * milliseconds, or the increment less the reserve if that is more, so a
+ * flagged side answers at once instead of searching without a limit.
+ *
+ * After each iteration the optimum is scaled. A best move that keeps
+ * changing, or a score that drops, earns more time; a best move that has
+ * held for several iterations earns less. A fixed move time is used as
+ * given and never scaled.
+ *
+ * Deadlines are absolute {@link System#nanoTime()} values, counted from
+ * {@link #start(long)}. Until then, and for searches without a time
+ * limit, every deadline is {@link Long#MAX_VALUE}.
+ *
+ * @author Abheek Pradhan
+ */
+public class TimeManager {
+    /** Time kept in reserve for the move to reach the other side. */
+    public static final long MOVE_OVERHEAD_MILLIS = 30;
+    /** Budget for a side whose clock has run out. */
+    public static final long MIN_BUDGET_MILLIS = 5;
+
+    // Moves assumed left in the game when the clock doesn't say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    // How far the optimum may be stretched before the maximum applies
+    private static final int MAX_STRETCH = 3;
+    private static final double MIN_STABILITY_FACTOR = 0.5;
+    private static final double MAX_STABILITY_FACTOR = 1.4;
+    private static final double STABILITY_STEP = 0.15;
+    private static final double MIN_SCORE_FACTOR = 0.8;
+    private static final double MAX_SCORE_FACTOR = 2.0;
+    // Centipawns of score drop that double the time
+    private static final double SCORE_DROP_SCALE = 100.0;
+
+    private long optimumMillis;
+    private long maximumMillis;
+    private boolean fixedMoveTime;
+
+    private long startNanos;
+    private boolean started;
+    private double scale = 1.0;
+    private int previousBestMove;
+    private int previousScore;
+    private int stableIterations;
+
+    public TimeManager(SearchLimits limits, String sideToMove) {
+        allocate(limits, sideToMove);
+    }
+
+    /**
+     * Recomputes the budgets, for example when a ponder search turns into
+     * a real one with fresh clock readings. What the search has learned
+     * about move stability is kept.
+     */
+    public synchronized void allocate(SearchLimits limits, String sideToMove) {
+        fixedMoveTime = limits.getMoveTimeMillis() > 0;
+        if (limits.isInfinite()) {
+            optimumMillis = 0;
+            maximumMillis = 0;
+            return;
+        }
+        if (fixedMoveTime) {
+            optimumMillis = limits.getMoveTimeMillis();
+            maximumMillis = optimumMillis;
+            return;
+        }
+
+        boolean white = sideToMove.equals("white");
+        long remaining = white ? limits.getWhiteTimeMillis() : limits.getBlackTimeMillis();
+        long increment = white ? limits.getWhiteIncrementMillis() : limits.getBlackIncrementMillis();
+        if (!(white ? limits.hasWhiteTime() : limits.hasBlackTime())) {
+            optimumMillis = 0;
+            maximumMillis = 0;
+            return;
+        }
+        if (remaining <= 0) {
+            optimumMillis = Math.max(MIN_BUDGET_MILLIS, increment - MOVE_OVERHEAD_MILLIS);
+            maximumMillis = optimumMillis;
+            return;
+        }
+        int movesToGo = limits.getMovesToGo();
+        long usable = Math.max(1, remaining - Math.min(MOVE_OVERHEAD_MILLIS, remaining / 20));
+        long cap = movesToGo == 1 ? usable : Math.max(1, usable / 2);
+        long horizon = movesToGo > 0 ? Math.min(movesToGo, DEFAULT_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+
+        optimumMillis = Math.max(1, Math.min(usable / horizon + increment * 3 / 4, cap));
+        maximumMillis = Math.min(optimumMillis * MAX_STRETCH, cap);
+    }
+
+    /**
+     * Returns true if the search has a time limit at all.
+     */
+    public synchronized boolean isTimed() {
+        return maximumMillis > 0;
+    }
+
+    public synchronized long getOptimumMillis() {
+        return optimumMillis;
+    }
+
+    public synchronized long getMaximumMillis() {
+        return maximumMillis;
+    }
+
+    /**
+     * Starts the clock for this move.
+     */
+    public synchronized void start(long nowNanos) {
+        startNanos = nowNanos;
+        started = true;
+    }
+
+    /**
+     * Records a completed iteration of the main thread and rescales the
+     * optimum from best-move stability and the change in score.
+     *
+     * @param score The iteration's score for the side to move
+     */
+    public synchronized void iterationFinished(int depth, int bestMove, int score) {
+        if (depth <= 1) {
+            stableIterations = 0;
+        } else if (bestMove == previousBestMove) {
+            stableIterations++;
+        } else {
+            stableIterations = 0;
+        }
+        double stability = Math.max(MIN_STABILITY_FACTOR,
+                                    MAX_STABILITY_FACTOR - STABILITY_STEP * stableIterations);
+        double scoreSwing = depth <= 1 ? 1.0
+            : clamp(1.0 + (previousScore - score) / SCORE_DROP_SCALE, MIN_SCORE_FACTOR, MAX_SCORE_FACTOR);
+        scale = stability * scoreSwing;
+        previousBestMove = bestMove;
+        previousScore = score;
+    }
+
+    /**
+     * The time after which the search should stop, given how settled the
+     * best move is; never later than the maximum. Checked during an
+     * iteration as well as between them.
+     */
+    public synchronized long stopDeadline() {
+        return deadline(fixedMoveTime ? maximumMillis : scaledOptimum());
+    }
+
+    /**
+     * The time after which a new iteration is not worth starting, since
+     * it would likely be cut off before it finishes.
+     */
+    public synchronized long iterationDeadline() {
+        return deadline(fixedMoveTime ? maximumMillis : Math.max(1, scaledOptimum() / 2));
+    }
+
+    private long scaledOptimum() {
+        return Math.min(maximumMillis, Math.max(1, Math.round(optimumMillis * scale)));
+    }
+
+    private long deadline(long millis) {
+        return started && maximumMillis > 0 ? startNanos + millis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import profiling.Counter;
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results shared by all search threads.
+ * Each slot is two longs: the packed entry and the position key XORed
+ * with that entry. A torn write from a racing thread then simply fails
+ * the key check instead of returning another position's data, so no
+ * locking is needed.
+ * 
+ * @author Abheek Pradhan
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private long[] keys;
+    private long[] entries;
+    private int mask;
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /**
+     * Reallocates the table to the largest power-of-two slot count that
+     * fits in the given size. Existing entries are dropped.
+     */
+    public synchronized void resize(int megabytes) {
+        long slots = Math.max(1, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        keys = new long[size];
+        entries = new long[size];
+        mask = size - 1;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    /**
+     * Returns the packed entry for the key, or 0 if none is stored.
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = entries[index];
+        Counter.TABLE_PROBES.increment();
+        if (entry != 0 && (keys[index] ^ entry) == key) {
+            Counter.TABLE_HITS.increment();
+            return entry;
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a result, replacing the slot unless it holds a deeper
+     * result for the same position.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long existing = entries[index];
+        if (existing != 0 && (keys[index] ^ existing) == key && depth(existing) > depth && bound != BOUND_EXACT) {
+            return;
+        }
+        long entry = (move & 0xFFFFL)
+            | ((score + 0x8000L) & 0xFFFFL) << 16
+            | (depth & 0xFFL) << 32
+            | (long) bound << 40;
+        entries[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int score(long entry) {
+        return (int) ((entry >>> 16) & 0xFFFF) - 0x8000;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 40) & 0x3);
+    }
+
+    /**
+     * Returns the share of slots in use, in permille, sampled from the
+     * first thousand slots as UCI's hashfull expects.
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, entries.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (entries[i] != 0) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+}
@@ -0,0 +1,354 @@
+package engine;
+
+import board.Board;
+import board.Fen;
+import board.Move;
+import profiling.Counter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+
+/**
+ * Speaks the Universal Chess Interface over a pair of streams so the
+ * engine can be driven by tournament managers and test harnesses.
+ * Commands are read on the calling thread while searches run on a
+ * background thread, so "stop" and "isready" are answered mid-search.
+ *
+ * The board has no castling, en passant or promotion, so a "position"
+ * whose FEN or move list needs them cannot be set up. Rather than search
+ * whatever position came before, "go" then answers "bestmove 0000"
+ * until a "position" the board can play arrives.
+ * 
+ * @author Abheek Pradhan
+ */
+public class UciProtocol {
+    private static final String ENGINE_NAME = "javaChess";
+    private static final String AUTHOR = "Abheek Pradhan";
+    private static final int DEFAULT_HASH_MB = 16;
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_THREADS = 256;
+    private static final int MAX_MULTI_PV = 64;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Search search = new Search(new TranspositionTable(DEFAULT_HASH_MB), new Evaluator());
+
+    private Board board = new Board();  // Null after a position that could not be set up
+    private String sideToMove = "white";
+    private Thread searchThread;
+    private volatile boolean stopCommanded;
+    private volatile boolean pondering;
+    private long searchesBeforeStart;
+    private int multiPv = 1;
+
+    public UciProtocol(InputStream in, PrintStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in));
+        this.out = out;
+    }
+
+    /**
+     * Processes commands until "quit" or end of input.
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            switch (tokens[0]) {
+                case "uci":
+                    out.println("id name " + ENGINE_NAME);
+                    out.println("id author " + AUTHOR);
+                    out.println("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                    out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    out.println("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+                    out.println("option name Ponder type check default false");
+                    out.println("option name EvalFile type string default <empty>");
+                    out.println("uciok");
+                    break;
+                case "isready":
+                    out.println("readyok");
+                    break;
+                case "setoption":
+                    setOption(tokens);
+                    break;
+                case "ucinewgame":
+                    stopSearch();
+                    search.getTranspositionTable().clear();
+                    break;
+                case "position":
+                    stopSearch();
+                    setPosition(tokens);
+                    break;
+                case "go":
+                    stopSearch();
+                    startSearch(parseLimits(tokens));
+                    break;
+                case "ponderhit":
+                    ponderHit();
+                    break;
+                case "stop":
+                    stopSearch();
+                    break;
+                case "quit":
+                    stopSearch();
+                    return;
+                default:
+                    out.println("info string Unknown command: " + line);
+                    break;
+            }
+        }
+        stopSearch();
+    }
+
+    private void setOption(String[] tokens) {
+        String name = valueAfter(tokens, "name", "value");
+        String value = valueAfter(tokens, "value", null);
+        if (name == null || value == null) {
+            return;
+        }
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                stopSearch();
+                int megabytes = Math.max(1, Math.min(MAX_HASH_MB, Integer.parseInt(value)));
+                search.getTranspositionTable().resize(megabytes);
+            } else if (name.equalsIgnoreCase("Threads")) {
+                stopSearch();
+                search.setThreads(Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value))));
+            } else if (name.equalsIgnoreCase("Ponder")) {
+                // The GUI decides when to ponder by sending "go ponder"; nothing to configure
+            } else if (name.equalsIgnoreCase("EvalFile")) {
+                stopSearch();
+                setEvalFile(value);
+            } else if (name.equalsIgnoreCase("MultiPV")) {
+                stopSearch();
+                multiPv = Math.max(1, Math.min(MAX_MULTI_PV, Integer.parseInt(value)));
+            } else {
+                out.println("info string Unknown option: " + name);
+            }
+        } catch (NumberFormatException e) {
+            out.println("info string Invalid value for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Switches to the network in the given file, or back to the
+     * handcrafted evaluation for "&lt;empty&gt;".
+     */
+    private void setEvalFile(String path) {
+        if (path.equals("<empty>")) {
+            search.setEvaluator(new Evaluator());
+            return;
+        }
+        try {
+            NnueNetwork network = NnueNetwork.load(Paths.get(path));
+            search.setEvaluator(new NnueEvaluator(network));
+            out.println("info string Loaded network " + path + " with " + network.getHiddenSize() + " hidden units");
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("info string Cannot load network " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles "position [startpos | fen <fen>] [moves <move>...]".
+     */
+    private void setPosition(String[] tokens) {
+        board = null;
+        int index = 1;
+        Board next;
+        String side;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (index = 2; index < tokens.length && !tokens[index].equals("moves"); index++) {
+                fen.append(tokens[index]).append(' ');
+            }
+            next = Board.empty();
+            try {
+                side = Fen.load(next, fen.toString());
+            } catch (IllegalArgumentException e) {
+                out.println("info string " + e.getMessage());
+                return;
+            }
+        } else {
+            next = new Board();
+            side = "white";
+            index = 2;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            int[] legal = new int[256];
+            for (index++; index < tokens.length; index++) {
+                int move = Move.fromUci(tokens[index]);
+                int count = next.generateMoves(side, legal);
+                if (!contains(legal, count, move)) {
+                    out.println("info string Illegal move: " + tokens[index]);
+                    return;
+                }
+                next.makeMove(move);
+                side = side.equals("white") ? "black" : "white";
+            }
+        }
+        board = next;
+        sideToMove = side;
+    }
+
+    private SearchLimits parseLimits(String[] tokens) {
+        SearchLimits limits = new SearchLimits();
+        limits.setMultiPv(multiPv);
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.equals("infinite")) {
+                limits.setInfinite(true);
+                continue;
+            }
+            if (token.equals("ponder")) {
+                limits.setPonder(true);
+                continue;
+            }
+            if (i + 1 >= tokens.length) {
+                break;
+            }
+            try {
+                long value = Long.parseLong(tokens[i + 1]);
+                switch (token) {
+                    case "depth": limits.setDepth((int) value); i++; break;
+                    case "nodes": limits.setNodes(value); i++; break;
+                    case "movetime": limits.setMoveTimeMillis(value); i++; break;
+                    case "wtime": limits.setWhiteTimeMillis(value); i++; break;
+                    case "btime": limits.setBlackTimeMillis(value); i++; break;
+                    case "winc": limits.setWhiteIncrementMillis(value); i++; break;
+                    case "binc": limits.setBlackIncrementMillis(value); i++; break;
+                    case "movestogo": limits.setMovesToGo((int) value); i++; break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                // Not a numeric parameter; move on to the next token
+            }
+        }
+        return limits;
+    }
+
+    private void startSearch(SearchLimits limits) {
+        if (board == null) {
+            out.println("info string No valid position; send a new one");
+            out.println("bestmove 0000");
+            return;
+        }
+        Board position = board;
+        String side = sideToMove;
+        stopCommanded = false;
+        pondering = limits.isPonder();
+        searchesBeforeStart = search.getSearchesStarted();
+        searchThread = new Thread(() -> {
+            SearchResult result = search.search(position, side, limits, this::printInfo);
+            if (limits.isInfinite() || pondering) {
+                // UCI forbids reporting a move before "stop" in infinite mode,
+                // or before "ponderhit" or "stop" while pondering
+                while (!stopCommanded && (limits.isInfinite() || pondering)) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+            if (Counter.ENABLED) {
+                out.println("info string stats " + Counter.report());
+            }
+            if (result.getBestMove() == Move.NONE) {
+                out.println("bestmove 0000");
+            } else if (result.getPonderMove() == Move.NONE) {
+                out.println("bestmove " + Move.toUci(result.getBestMove()));
+            } else {
+                out.println("bestmove " + Move.toUci(result.getBestMove())
+                    + " ponder " + Move.toUci(result.getPonderMove()));
+            }
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * The opponent played the move we were pondering on, so the ponder
+     * search carries on as a normal search with the clock it was given.
+     */
+    private void ponderHit() {
+        if (searchThread == null || !pondering) {
+            return;
+        }
+        // A hit sent before the search started would be reset by it
+        while (searchThread.isAlive() && search.getSearchesStarted() == searchesBeforeStart) {
+            Thread.onSpinWait();
+        }
+        search.ponderHit();
+        pondering = false;
+    }
+
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        stopCommanded = true;
+        // A stop sent before the search started would be reset by it
+        while (searchThread.isAlive() && search.getSearchesStarted() == searchesBeforeStart) {
+            Thread.onSpinWait();
+        }
+        search.stop();
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private void printInfo(SearchResult result) {
+        String score = result.isMateScore()
+            ? "mate " + result.getMateInMoves()
+            : "cp " + result.getScore();
+        out.println("info depth " + result.getDepth()
+            + " multipv " + result.getMultiPvIndex()
+            + " score " + score
+            + " nodes " + result.getNodes()
+            + " nps " + result.getNodesPerSecond()
+            + " time " + result.getTimeMillis()
+            + " hashfull " + search.getTranspositionTable().hashfull()
+            + " pv " + result.principalVariationText());
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the words between a keyword and an optional terminator,
+     * e.g. the option name in "setoption name Hash value 64".
+     */
+    private static String valueAfter(String[] tokens, String keyword, String terminator) {
+        StringBuilder value = null;
+        for (String token : tokens) {
+            if (value == null) {
+                if (token.equals(keyword)) {
+                    value = new StringBuilder();
+                }
+            } else if (token.equals(terminator)) {
+                break;
+            } else {
+                if (value.length() > 0) {
+                    value.append(' ');
+                }
+                value.append(token);
+            }
+        }
+        return value == null || value.length() == 0 ? null : value.toString();
+    }
+}
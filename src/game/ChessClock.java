@@ -0,0 +1,168 @@
+package game;
+
+import engine.SearchLimits;
+
+/**
+ * A two-sided chess clock: base time plus an optional increment per move,
+ * and optionally a number of moves per time control after which the base
+ * time is added again, as in "40 moves in 90 minutes".
+ *
+ * Only the side to move's clock runs. Pressing the clock ends that side's
+ * turn, adds its increment and starts the opponent's clock. Methods are
+ * synchronized so the GUI can read the clock while the engine thinks.
+ *
+ * @author Abheek Pradhan
+ */
+public class ChessClock {
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final int movesPerControl;
+
+    private final long[] remainingMillis = new long[2];
+    private final int[] movesMade = new int[2];
+    private String running;
+    private long runningSinceNanos;
+
+    public ChessClock(long baseMillis, long incrementMillis) {
+        this(baseMillis, incrementMillis, 0);
+    }
+
+    /**
+     * @param movesPerControl Moves after which the base time is added
+     *                        again, or 0 for one control for the game
+     */
+    public ChessClock(long baseMillis, long incrementMillis, int movesPerControl) {
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.movesPerControl = movesPerControl;
+        remainingMillis[0] = baseMillis;
+        remainingMillis[1] = baseMillis;
+    }
+
+    /**
+     * Parses a time control written as "minutes+seconds", such as "3+2"
+     * or "5", optionally preceded by "moves/", as in "40/90+30".
+     *
+     * @throws IllegalArgumentException If the text is not a time control
+     */
+    public static ChessClock parse(String text) {
+        try {
+            int slash = text.indexOf('/');
+            int moves = slash >= 0 ? Integer.parseInt(text.substring(0, slash).trim()) : 0;
+            String rest = text.substring(slash + 1);
+            int plus = rest.indexOf('+');
+            double minutes = Double.parseDouble(plus >= 0 ? rest.substring(0, plus) : rest);
+            double seconds = plus >= 0 ? Double.parseDouble(rest.substring(plus + 1)) : 0;
+            if (minutes <= 0 || seconds < 0 || moves < 0) {
+                throw new IllegalArgumentException("Time control must be positive: " + text);
+            }
+            return new ChessClock(Math.round(minutes * 60_000), Math.round(seconds * 1000), moves);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Time control must look like 5+3 or 40/90+30: " + text);
+        }
+    }
+
+    /**
+     * Starts the given side's clock, stopping the other's.
+     */
+    public synchronized void start(String side) {
+        stop();
+        running = side;
+        runningSinceNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends the running side's turn: its time is charged, the increment and
+     * any new time control added, and the opponent's clock started.
+     */
+    public synchronized void press() {
+        if (running == null) {
+            return;
+        }
+        String mover = running;
+        stop();
+        int index = index(mover);
+        movesMade[index]++;
+        remainingMillis[index] += incrementMillis;
+        if (movesPerControl > 0 && movesMade[index] % movesPerControl == 0) {
+            remainingMillis[index] += baseMillis;
+        }
+        start(opponent(mover));
+    }
+
+    /**
+     * Stops whichever clock is running.
+     */
+    public synchronized void stop() {
+        if (running != null) {
+            remainingMillis[index(running)] -= (System.nanoTime() - runningSinceNanos) / 1_000_000L;
+            running = null;
+        }
+    }
+
+    /**
+     * Returns the side whose clock is running, or null.
+     */
+    public synchronized String getRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the time left for a side, counting the turn in progress.
+     * Negative once the side has overstepped.
+     */
+    public synchronized long getRemainingMillis(String side) {
+        long remaining = remainingMillis[index(side)];
+        if (side.equals(running)) {
+            remaining -= (System.nanoTime() - runningSinceNanos) / 1_000_000L;
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns true once the side has run out of time.
+     */
+    public synchronized boolean isFlagged(String side) {
+        return getRemainingMillis(side) <= 0;
+    }
+
+    /**
+     * Builds search limits from the current readings, as a UCI "go" with
+     * wtime, btime, winc, binc and movestogo would.
+     */
+    public synchronized SearchLimits toSearchLimits() {
+        SearchLimits limits = new SearchLimits();
+        limits.setWhiteTimeMillis(Math.max(1, getRemainingMillis(WHITE)));
+        limits.setBlackTimeMillis(Math.max(1, getRemainingMillis(BLACK)));
+        limits.setWhiteIncrementMillis(incrementMillis);
+        limits.setBlackIncrementMillis(incrementMillis);
+        if (movesPerControl > 0 && running != null) {
+            limits.setMovesToGo(movesPerControl - movesMade[index(running)] % movesPerControl);
+        }
+        return limits;
+    }
+
+    /**
+     * Formats a side's remaining time as "m:ss", with tenths of a second
+     * shown in the last ten seconds.
+     */
+    public String format(String side) {
+        long millis = Math.max(0, getRemainingMillis(side));
+        long seconds = millis / 1000;
+        if (millis < 10_000) {
+            return String.format("0:%02d.%d", seconds, (millis % 1000) / 100);
+        }
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private static int index(String side) {
+        return side.equals(WHITE) ? 0 : 1;
+    }
+
+    private static String opponent(String side) {
+        return side.equals(WHITE) ? BLACK : WHITE;
+    }
+}
@@ -1,18 +1,28 @@
 package game;
 
 import board.Board;
+import board.GameStatus;
+import board.Move;
+import engine.AnalysisCache;
+import engine.Search;
+import engine.SearchLimits;
 import utils.Position;
 import pieces.Piece;
 import java.util.Scanner;
-import java.util.ArrayList;
-import java.util.List;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Console-based chess game implementation.
  * Handles game flow, move validation, and player interaction.
  * Includes comprehensive chess rules enforcement and game state management.
- * Supports save/load functionality and maintains move history.
+ * Supports save/load functionality, in its own format or PGN, and
+ * maintains move history.
+ * Optionally plays one side itself and keeps a chess clock, in which
+ * case its search budgets time from the clock readings. The computer's
+ * analysis is kept in the on-disk {@link AnalysisCache} between games.
  * 
  * @author Abheek Pradhan
  */
@@ -20,12 +30,31 @@ public class Game {
     private Board board;
     private String currentPlayer;
     private boolean gameOver;
-    private List<String> moveHistory;
+    private MoveHistory moveHistory;
     private boolean isInCheck;
     private static final String WHITE = "white";
     private static final String BLACK = "black";
+    private static final long COMPUTER_MOVE_MILLIS = 1000;
+
+    private final ChessClock clock;
+    private final String computerColor;
+    private final Search engine;
 
     public Game() {
+        this(null, null);
+    }
+
+    /**
+     * @param clock The clock to play with, or null for an untimed game
+     * @param computerColor The side the computer plays, or null for two players
+     */
+    public Game(ChessClock clock, String computerColor) {
+        this.clock = clock;
+        this.computerColor = computerColor;
+        this.engine = computerColor != null ? new Search() : null;
+        if (engine != null) {
+            engine.setAnalysisCache(AnalysisCache.openDefault());
+        }
         initializeGame();
     }
 
@@ -33,18 +62,29 @@ public class Game {
         board = new Board();
         currentPlayer = WHITE;
         gameOver = false;
-        moveHistory = new ArrayList<>();
+        moveHistory = new MoveHistory();
         isInCheck = false;
     }
 
     public void start() {
         Scanner scanner = new Scanner(System.in);
         displayWelcomeMessage();
+        if (clock != null) {
+            clock.start(currentPlayer);
+        }
 
         while (!gameOver) {
             try {
                 displayGameState();
+                if (currentPlayer.equals(computerColor)) {
+                    playComputerMove();
+                    continue;
+                }
                 String input = getPlayerInput(scanner);
+                if (clock != null && clock.isFlagged(currentPlayer)) {
+                    handleTimeForfeit();
+                    break;
+                }
                 
                 if (input.equalsIgnoreCase("exit")) {
                     handleGameExit();
@@ -63,6 +103,13 @@ public class Game {
 
                 if (input.equalsIgnoreCase("undo")) {
                     undoLastMove();
+                    // Against the computer, take back its reply as well
+                    if (currentPlayer.equals(computerColor) && !moveHistory.isEmpty()) {
+                        undoLastMove();
+                    }
+                    if (clock != null) {
+                        clock.start(currentPlayer);
+                    }
                     continue;
                 }
 
@@ -75,14 +122,19 @@ public class Game {
             }
         }
         scanner.close();
+        AnalysisCache cache = engine != null ? engine.getAnalysisCache() : null;
+        if (cache != null) {
+            System.out.println(cache.report());
+            cache.close();
+        }
     }
 
     private void displayWelcomeMessage() {
         System.out.println("Welcome to Chess!");
         System.out.println("Commands:");
         System.out.println(" - Move: e2 e4");
-        System.out.println(" - Save game: save");
-        System.out.println(" - Load game: load");
+        System.out.println(" - Save game: save (a name ending in .pgn saves PGN)");
+        System.out.println(" - Load game: load (reads .pgn files too)");
         System.out.println(" - Undo move: undo");
         System.out.println(" - Exit game: exit");
         System.out.println();
@@ -96,6 +148,10 @@ public class Game {
             System.out.println("\nWARNING: " + currentPlayer.toUpperCase() + " is in CHECK!");
         }
 
+        if (clock != null) {
+            System.out.println("\nClock - white " + clock.format(WHITE) + ", black " + clock.format(BLACK));
+        }
+
         // Display current player's turn
         System.out.println("\n" + currentPlayer + "'s turn.");
         
@@ -103,7 +159,7 @@ public class Game {
         if (!moveHistory.isEmpty()) {
             System.out.println("\nMove history:");
             for (int i = 0; i < moveHistory.size(); i++) {
-                System.out.printf("%d. %s%n", i + 1, moveHistory.get(i));
+                System.out.printf("%d. %s%n", i + 1, moveHistory.describe(i));
             }
         }
     }
@@ -146,23 +202,32 @@ public class Game {
         }
 
         // Execute the move
-        Piece capturedPiece = board.getPiece(to);
+        int pieceType = board.getPieceType(from.toIndex());
+        int capturedType = board.getPieceType(to.toIndex());
         boolean moveSuccessful = board.movePiece(from, to);
         
         if (moveSuccessful) {
-            // Record the move
-            String moveNotation = createMoveNotation(piece, from, to, capturedPiece);
-            moveHistory.add(moveNotation);
-            
             // Check opponent's king status
             String opponent = currentPlayer.equals(WHITE) ? BLACK : WHITE;
-            if (board.isCheckmate(opponent)) {
-                handleCheckmate();
-            } else if (board.isInCheck(opponent)) {
-                System.out.println("CHECK!");
-                isInCheck = true;
-            } else {
-                isInCheck = false;
+            GameStatus status = board.gameStatus(opponent);
+            moveHistory.add(Move.of(from.toIndex(), to.toIndex()), pieceType, capturedType,
+                            status == GameStatus.CHECK || status == GameStatus.CHECKMATE);
+            isInCheck = status == GameStatus.CHECK;
+            switch (status) {
+                case CHECKMATE:
+                    handleCheckmate();
+                    break;
+                case STALEMATE:
+                    handleDraw("STALEMATE");
+                    break;
+                case INSUFFICIENT_MATERIAL:
+                    handleDraw("INSUFFICIENT MATERIAL");
+                    break;
+                case CHECK:
+                    System.out.println("CHECK!");
+                    break;
+                default:
+                    break;
             }
         }
 
@@ -179,9 +244,7 @@ public class Game {
         }
 
         // Check if move would leave/put own king in check
-        Board tempBoard = board.copyBoard();
-        tempBoard.movePiece(from, to);
-        if (tempBoard.isInCheck(currentPlayer)) {
+        if (board.wouldMoveExposeCheck(from, to)) {
             System.out.println("Invalid move: Would leave/put your king in check!");
             return false;
         }
@@ -191,6 +254,46 @@ public class Game {
 
     private void updateGameState() {
         currentPlayer = currentPlayer.equals(WHITE) ? BLACK : WHITE;
+        if (clock != null) {
+            if (gameOver) {
+                clock.stop();
+            } else {
+                clock.press();
+            }
+        }
+    }
+
+    /**
+     * Lets the engine choose and play a move for the side to move. With a
+     * clock, the search is budgeted from the current readings.
+     */
+    private void playComputerMove() {
+        System.out.println("\nComputer is thinking...");
+        SearchLimits limits = clock != null ? clock.toSearchLimits()
+                                            : SearchLimits.moveTime(COMPUTER_MOVE_MILLIS);
+        int move = engine.search(board.copyBoard(), currentPlayer, limits, null).getBestMove();
+        if (clock != null && clock.isFlagged(currentPlayer)) {
+            handleTimeForfeit();
+            return;
+        }
+        if (move == Move.NONE) {
+            handleDraw("NO LEGAL MOVES");
+            return;
+        }
+        String input = Move.squareName(Move.from(move)) + " " + Move.squareName(Move.to(move));
+        System.out.println("Computer plays " + input);
+        if (processMove(input)) {
+            updateGameState();
+        }
+    }
+
+    private void handleTimeForfeit() {
+        gameOver = true;
+        clock.stop();
+        String winner = currentPlayer.equals(WHITE) ? BLACK : WHITE;
+        System.out.println("\n" + currentPlayer.toUpperCase() + " ran out of time.");
+        System.out.println(winner + " wins the game!");
+        displayFinalScore();
     }
 
     private void handleCheckmate() {
@@ -201,6 +304,14 @@ public class Game {
         displayFinalScore();
     }
 
+    private void handleDraw(String reason) {
+        gameOver = true;
+        board.display();
+        System.out.println("\n" + reason + "!");
+        System.out.println("The game is a draw.");
+        displayFinalScore();
+    }
+
     private void handleGameExit() {
         System.out.println("\nGame ended.");
         displayFinalScore();
@@ -211,36 +322,22 @@ public class Game {
         System.out.println("Thank you for playing!");
     }
 
-    private String createMoveNotation(Piece piece, Position from, Position to, Piece captured) {
-        StringBuilder notation = new StringBuilder();
-        notation.append(piece.getClass().getSimpleName())
-               .append(": ")
-               .append(from.toString())
-               .append(" → ")
-               .append(to.toString());
-        
-        if (captured != null) {
-            notation.append(" (captures ")
-                   .append(captured.getClass().getSimpleName())
-                   .append(")");
-        }
-        
-        if (board.isInCheck(currentPlayer.equals(WHITE) ? BLACK : WHITE)) {
-            notation.append(" +");
-        }
-        
-        return notation.toString();
-    }
-
     private void saveGame() {
         try {
             System.out.print("Enter filename to save: ");
             String filename = new Scanner(System.in).nextLine().trim();
+            if (filename.endsWith(".pgn")) {
+                Files.write(Paths.get(filename), Pgn.write(moveHistory).getBytes(StandardCharsets.UTF_8));
+                System.out.println("Game saved as PGN!");
+                return;
+            }
             if (!filename.endsWith(".txt")) {
                 filename += ".txt";
             }
 
-            try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            // History lines contain "→", so don't depend on the platform charset
+            try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                    new FileOutputStream(filename), StandardCharsets.UTF_8))) {
                 writer.println("CurrentPlayer: " + currentPlayer);
                 writer.println("IsInCheck: " + isInCheck);
                 
@@ -258,8 +355,8 @@ public class Game {
                 
                 // Save move history
                 writer.println("MoveHistory:");
-                for (String move : moveHistory) {
-                    writer.println(move);
+                for (int i = 0; i < moveHistory.size(); i++) {
+                    writer.println(moveHistory.describe(i));
                 }
             }
             System.out.println("Game saved successfully!");
@@ -272,62 +369,39 @@ public class Game {
         try {
             System.out.print("Enter filename to load: ");
             String filename = new Scanner(System.in).nextLine().trim();
+            if (filename.endsWith(".pgn")) {
+                loadPgn(filename);
+                return;
+            }
             if (!filename.endsWith(".txt")) {
                 filename += ".txt";
             }
 
-            board = new Board(); // Start with fresh board
-            moveHistory.clear();
-            
-            try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-                String line;
-                boolean readingBoard = false;
-                boolean readingMoves = false;
-
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("CurrentPlayer:")) {
-                        currentPlayer = line.split(": ")[1];
-                    } else if (line.startsWith("IsInCheck:")) {
-                        isInCheck = Boolean.parseBoolean(line.split(": ")[1]);
-                    } else if (line.equals("Board:")) {
-                        readingBoard = true;
-                        continue;
-                    } else if (line.equals("MoveHistory:")) {
-                        readingBoard = false;
-                        readingMoves = true;
-                        continue;
-                    }
-
-                    if (readingBoard && line.contains(",")) {
-                        String[] parts = line.split(",");
-                        Position pos = new Position(
-                            Integer.parseInt(parts[0]),
-                            Integer.parseInt(parts[1])
-                        );
-                        createAndPlacePiece(parts[2], parts[3], pos);
-                    } else if (readingMoves) {
-                        moveHistory.add(line);
-                    }
-                }
-            }
+            SavedGame saved = SavedGame.read(filename);
+            board = saved.getFinalBoard();
+            moveHistory = MoveHistory.replayed(saved.getMoves());
+            currentPlayer = saved.getSideToMove();
+            isInCheck = board.isInCheck(currentPlayer);
             System.out.println("Game loaded successfully!");
         } catch (IOException e) {
             System.out.println("Error loading game: " + e.getMessage());
         }
     }
 
-    private void createAndPlacePiece(String color, String pieceType, Position pos) {
-        Piece piece = null;
-        switch (pieceType) {
-            case "King": piece = new pieces.King(color, pos); break;
-            case "Queen": piece = new pieces.Queen(color, pos); break;
-            case "Rook": piece = new pieces.Rook(color, pos); break;
-            case "Bishop": piece = new pieces.Bishop(color, pos); break;
-            case "Knight": piece = new pieces.Knight(color, pos); break;
-            case "Pawn": piece = new pieces.Pawn(color, pos); break;
-        }
-        if (piece != null) {
-            board.placePiece(piece, pos);
+    /**
+     * Replaces the game with the first game of a PGN file, positioned
+     * after its last move.
+     */
+    private void loadPgn(String filename) throws IOException {
+        try {
+            Pgn pgn = Pgn.read(new String(Files.readAllBytes(Paths.get(filename)), StandardCharsets.UTF_8));
+            moveHistory = pgn.getHistory();
+            board = pgn.getFinalBoard();
+            currentPlayer = pgn.getSideToMove();
+            isInCheck = board.isInCheck(currentPlayer);
+            System.out.println("Loaded " + moveHistory.size() + " moves, result " + pgn.getResult());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error reading PGN: " + e.getMessage());
         }
     }
 
@@ -337,18 +411,11 @@ public class Game {
             return;
         }
 
-        moveHistory.remove(moveHistory.size() - 1);
-        board = new Board();
-        currentPlayer = WHITE;
-        
         // Replay all moves except the last one
-        for (String move : moveHistory) {
-            String[] parts = move.split(" → ");
-            Position from = Position.fromAlgebraic(parts[0].split(": ")[1]);
-            Position to = Position.fromAlgebraic(parts[1].split(" ")[0]);
-            board.movePiece(from, to);
-            currentPlayer = currentPlayer.equals(WHITE) ? BLACK : WHITE;
-        }
+        moveHistory.removeLast();
+        board = moveHistory.replay(moveHistory.size());
+        currentPlayer = MoveHistory.mover(moveHistory.size());
+        isInCheck = board.isInCheck(currentPlayer);
         
         System.out.println("Move undone!");
     }
@@ -0,0 +1,167 @@
+package game;
+
+import board.Board;
+import board.Move;
+import utils.Position;
+import java.util.Arrays;
+
+/**
+ * The moves of a game from the starting position, stored as one int per
+ * move in a growable array: the 16-bit {@link Move} in the low half, and
+ * in the high half the type of the piece that moved, the type it
+ * captured and whether the move gave check. That is everything the
+ * history text shows, so lines such as
+ * "Bishop: C6 → D7 (captures Pawn) +" are only built when displayed or
+ * saved, and taking a move back replays the moves without parsing text.
+ *
+ * @author Abheek Pradhan
+ */
+public class MoveHistory {
+    private static final String[] TYPE_NAMES = {"Pawn", "Knight", "Bishop", "Rook", "Queen", "King"};
+    private static final int TYPE_SHIFT = 16;
+    private static final int CAPTURED_SHIFT = 19;
+    private static final int CHECK = 1 << 22;
+
+    private int[] entries = new int[64];
+    private int size;
+
+    /**
+     * Plays moves from the starting position, stopping at the first one
+     * that is not legal, and returns the history of the legal ones.
+     */
+    public static MoveHistory replayed(int[] moves) {
+        MoveHistory history = new MoveHistory();
+        Board board = new Board();
+        String side = "white";
+        int[] legal = new int[256];
+        for (int move : moves) {
+            int count = board.generateMoves(side, legal);
+            boolean found = false;
+            for (int i = 0; i < count && !found; i++) {
+                found = legal[i] == move;
+            }
+            if (!found) {
+                break;
+            }
+            int type = board.getPieceType(Move.from(move));
+            int captured = board.getPieceType(Move.to(move));
+            boolean check = board.givesCheck(move);
+            board.makeMove(move);
+            history.add(move, type, captured, check);
+            side = side.equals("white") ? "black" : "white";
+        }
+        return history;
+    }
+
+    /**
+     * Records a move that has been played.
+     *
+     * @param pieceType The type of the piece that moved
+     * @param capturedType The type of the piece it captured, or -1
+     * @param check Whether the move put the opponent in check
+     */
+    public void add(int move, int pieceType, int capturedType, boolean check) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size++] = (move & 0xFFFF)
+            | pieceType << TYPE_SHIFT
+            | (capturedType + 1) << CAPTURED_SHIFT
+            | (check ? CHECK : 0);
+    }
+
+    /**
+     * Forgets the last move.
+     */
+    public void removeLast() {
+        size--;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a move in {@link Move} encoding.
+     */
+    public int getMove(int index) {
+        return entries[index] & 0xFFFF;
+    }
+
+    /**
+     * Returns the type of the piece a move took, or -1 if it took none.
+     */
+    public int getCapturedType(int index) {
+        return ((entries[index] >>> CAPTURED_SHIFT) & 7) - 1;
+    }
+
+    /**
+     * Returns the moves in {@link Move} encoding.
+     */
+    public int[] getMoves() {
+        int[] moves = new int[size];
+        for (int i = 0; i < size; i++) {
+            moves[i] = getMove(i);
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the board after the first moves of the game.
+     */
+    public Board replay(int plies) {
+        Board board = new Board();
+        for (int i = 0; i < plies; i++) {
+            board.makeMove(getMove(i));
+        }
+        return board;
+    }
+
+    /**
+     * Returns the side that played a move; white moves first.
+     */
+    public static String mover(int index) {
+        return index % 2 == 0 ? "white" : "black";
+    }
+
+    /**
+     * Returns a piece type's name as used in the history text, such as
+     * "Knight".
+     */
+    public static String typeName(int type) {
+        return TYPE_NAMES[type];
+    }
+
+    /**
+     * Formats a move the way saved games store history, e.g.
+     * "Bishop: C6 → D7 (captures Pawn) +".
+     */
+    public String describe(int index) {
+        int entry = entries[index];
+        int move = entry & 0xFFFF;
+        StringBuilder notation = new StringBuilder();
+        notation.append(typeName((entry >>> TYPE_SHIFT) & 7))
+                .append(": ")
+                .append(Position.fromIndex(Move.from(move)))
+                .append(" → ")
+                .append(Position.fromIndex(Move.to(move)));
+        int captured = getCapturedType(index);
+        if (captured >= 0) {
+            notation.append(" (captures ")
+                    .append(typeName(captured))
+                    .append(")");
+        }
+        if ((entry & CHECK) != 0) {
+            notation.append(" +");
+        }
+        return notation.toString();
+    }
+}
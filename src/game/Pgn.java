@@ -0,0 +1,245 @@
+package game;
+
+import board.Board;
+import board.GameStatus;
+import board.Move;
+import board.San;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes and reads games in Portable Game Notation, with moves in SAN.
+ *
+ * Export replays the history once. The legal moves generated for each
+ * position serve twice: to disambiguate the move played there, and to
+ * tell whether the move before it gave mate or only check, so a game
+ * costs one move generation per move.
+ *
+ * Import reads the first game of the text. Comments, variations,
+ * numeric annotations and move numbers are skipped. Games that start
+ * from a set-up position cannot be replayed into a {@link MoveHistory}
+ * and are refused.
+ *
+ * @author Abheek Pradhan
+ */
+public class Pgn {
+    private static final int LINE_LENGTH = 80;
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private final Map<String, String> tags;
+    private final MoveHistory history;
+
+    private Pgn(Map<String, String> tags, MoveHistory history) {
+        this.tags = tags;
+        this.history = history;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns the result tag, "*" if the game has none.
+     */
+    public String getResult() {
+        return tags.getOrDefault("Result", "*");
+    }
+
+    /**
+     * Formats a game played from the starting position, with the seven
+     * standard tags. The result is read from the final position:
+     * checkmate, a draw by rule, or "*" for a game still in progress.
+     */
+    public static String write(MoveHistory history) {
+        Board board = new Board();
+        String side = "white";
+        int[] legal = new int[256];
+        int count = board.generateMoves(side, legal);
+        StringBuilder moves = new StringBuilder(history.size() * 6);
+        int lineStart = 0;
+
+        for (int i = 0; i < history.size(); i++) {
+            int move = history.getMove(i);
+            String san = San.toSan(board, move, legal, count);
+            board.makeMove(move);
+            side = side.equals("white") ? "black" : "white";
+            // The next position's moves settle the suffix and serve the next move
+            count = board.generateMoves(side, legal);
+            boolean check = board.isInCheck(side);
+
+            String token = (i % 2 == 0 ? (i / 2 + 1) + ". " : "") + san
+                + (check ? (count == 0 ? "#" : "+") : "");
+            if (moves.length() - lineStart + token.length() >= LINE_LENGTH) {
+                moves.append('\n');
+                lineStart = moves.length();
+            } else if (moves.length() > 0) {
+                moves.append(' ');
+            }
+            moves.append(token);
+        }
+
+        String result = result(board, side);
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Casual Game");
+        tags.put("Site", "?");
+        tags.put("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        tags.put("Round", "-");
+        tags.put("White", "?");
+        tags.put("Black", "?");
+        tags.put("Result", result);
+
+        StringBuilder pgn = new StringBuilder(moves.length() + 200);
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            pgn.append('[').append(tag.getKey()).append(" \"").append(tag.getValue()).append("\"]\n");
+        }
+        pgn.append('\n').append(moves);
+        pgn.append(moves.length() - lineStart + result.length() >= LINE_LENGTH ? '\n' : ' ');
+        return pgn.append(result).append('\n').toString();
+    }
+
+    /**
+     * Reads the first game in PGN text.
+     *
+     * @throws IllegalArgumentException If a move is illegal or unreadable,
+     *         or the game starts from a set-up position
+     */
+    public static Pgn read(String text) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        MoveHistory history = new MoveHistory();
+        Board board = new Board();
+        String side = "white";
+        int[] legal = new int[256];
+        int count = board.generateMoves(side, legal);
+        boolean movesStarted = false;
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '[' && !movesStarted) {
+                int end = text.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated tag");
+                }
+                readTag(text.substring(i + 1, end), tags);
+                i = end + 1;
+            } else if (c == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? text.length() : end + 1;
+            } else if (c == ';' || (c == '%' && (i == 0 || text.charAt(i - 1) == '\n'))) {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? text.length() : end + 1;
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                        && "{(;".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                String token = text.substring(i, end);
+                i = end;
+                if (isResult(token)) {
+                    if (movesStarted || history.size() > 0) {
+                        break;  // End of the first game
+                    }
+                    continue;
+                }
+                // Strip a move number, as in "12.e4" or "12...", and skip NAGs
+                token = token.replaceFirst("^\\d+\\.+", "");
+                if (token.isEmpty() || token.startsWith("$")) {
+                    continue;
+                }
+                if (!movesStarted) {
+                    movesStarted = true;
+                    if (tags.containsKey("FEN") || "1".equals(tags.get("SetUp"))) {
+                        throw new IllegalArgumentException("Games from a set-up position are not supported");
+                    }
+                }
+
+                int move = San.parse(board, token, legal, count);
+                if (move == Move.NONE) {
+                    throw new IllegalArgumentException("Illegal or ambiguous move " + token
+                        + " at move " + (history.size() / 2 + 1));
+                }
+                int type = board.getPieceType(Move.from(move));
+                int captured = board.getPieceType(Move.to(move));
+                board.makeMove(move);
+                side = side.equals("white") ? "black" : "white";
+                count = board.generateMoves(side, legal);
+                history.add(move, type, captured, board.isInCheck(side));
+            }
+        }
+        return new Pgn(tags, history);
+    }
+
+    /**
+     * Returns the board after the game's moves.
+     */
+    public Board getFinalBoard() {
+        return history.replay(history.size());
+    }
+
+    /**
+     * Returns the side to move after the game's moves.
+     */
+    public String getSideToMove() {
+        return MoveHistory.mover(history.size());
+    }
+
+    private static String result(Board board, String sideToMove) {
+        GameStatus status = board.gameStatus(sideToMove);
+        if (status == GameStatus.CHECKMATE) {
+            return sideToMove.equals("white") ? "0-1" : "1-0";
+        }
+        return status.isGameOver() ? "1/2-1/2" : "*";
+    }
+
+    private static boolean isResult(String token) {
+        for (String result : RESULTS) {
+            if (result.equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a tag pair such as {@code Event "Casual Game"}.
+     */
+    private static void readTag(String pair, Map<String, String> tags) {
+        int quote = pair.indexOf('"');
+        int endQuote = pair.lastIndexOf('"');
+        if (quote < 0 || endQuote <= quote) {
+            throw new IllegalArgumentException("Malformed tag [" + pair + "]");
+        }
+        String value = pair.substring(quote + 1, endQuote).replace("\\\"", "\"").replace("\\\\", "\\");
+        tags.put(pair.substring(0, quote).trim(), value);
+    }
+
+    /**
+     * Returns the index just past a variation, including any nested in it.
+     */
+    private static int skipVariation(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? text.length() : end;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+}
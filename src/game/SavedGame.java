@@ -0,0 +1,183 @@
+package game;
+
+import board.Board;
+import board.Move;
+import utils.Position;
+import pieces.Piece;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a game saved by the console or GUI. Two layouts exist:
+ * the current one, with "CurrentPlayer:", "Board:" and "MoveHistory:"
+ * sections, and an older one that is just the side to move followed by
+ * history lines. Both store history as lines like
+ * "Bishop: F1 → B5 (captures Pawn) +".
+ *
+ * @author Abheek Pradhan
+ */
+public class SavedGame {
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+    private static final String ARROW = "→";
+
+    private final String sideToMove;
+    private final Board savedBoard;
+    private final int[] moves;
+
+    private SavedGame(String sideToMove, Board savedBoard, int[] moves) {
+        this.sideToMove = sideToMove;
+        this.savedBoard = savedBoard;
+        this.moves = moves;
+    }
+
+    /**
+     * Parses a saved game file.
+     *
+     * @throws IOException If the file cannot be read
+     */
+    public static SavedGame read(String path) throws IOException {
+        String sideToMove = WHITE;
+        Board savedBoard = null;
+        int[] moves = new int[16];
+        int moveCount = 0;
+        boolean readingBoard = false;
+
+        // Saved files contain "→", so don't depend on the platform charset
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            boolean firstLine = true;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (firstLine && (line.equals(WHITE) || line.equals(BLACK))) {
+                    sideToMove = line;  // Older layout
+                } else if (line.startsWith("CurrentPlayer:")) {
+                    sideToMove = line.substring(line.indexOf(':') + 1).trim();
+                } else if (line.equals("Board:")) {
+                    readingBoard = true;
+                    savedBoard = Board.empty();
+                } else if (line.equals("MoveHistory:")) {
+                    readingBoard = false;
+                } else if (readingBoard) {
+                    placePiece(savedBoard, line);
+                } else {
+                    int move = parseMoveLine(line);
+                    if (move != Move.NONE) {
+                        if (moveCount == moves.length) {
+                            moves = Arrays.copyOf(moves, moveCount * 2);
+                        }
+                        moves[moveCount++] = move;
+                    }
+                }
+                firstLine = false;
+            }
+        }
+        return new SavedGame(sideToMove, savedBoard, Arrays.copyOf(moves, moveCount));
+    }
+
+    /**
+     * Extracts the from and to squares of a history line such as
+     * "Pawn: E2 → E4", returning {@link Move#NONE} for anything else.
+     */
+    public static int parseMoveLine(String line) {
+        int arrow = line.indexOf(ARROW);
+        int colon = line.indexOf(':');
+        if (arrow < 0 || colon < 0 || colon > arrow) {
+            return Move.NONE;
+        }
+        String from = line.substring(colon + 1, arrow).trim();
+        String rest = line.substring(arrow + ARROW.length()).trim();
+        String to = rest.length() >= 2 ? rest.substring(0, 2) : rest;
+        return Move.fromUci(from + to);
+    }
+
+    public String getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Returns the board section of the file, or null if the file has none.
+     */
+    public Board getSavedBoard() {
+        return savedBoard == null ? null : savedBoard.copyBoard();
+    }
+
+    /**
+     * Returns the position the game was left in: the board section, or
+     * for files without one the position the history reaches.
+     */
+    public Board getFinalBoard() {
+        if (savedBoard != null) {
+            return savedBoard.copyBoard();
+        }
+        List<Board> positions = replay();
+        return positions.isEmpty() ? new Board() : positions.get(positions.size() - 1);
+    }
+
+    /**
+     * Returns the moves from the history, in order, without checking
+     * that they are legal.
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Plays the history from the starting position, stopping at the first
+     * move that is not legal.
+     *
+     * @return The board after each legal move; the last entry is the
+     *         final position reached
+     */
+    public List<Board> replay() {
+        List<Board> positions = new ArrayList<>();
+        Board board = new Board();
+        String side = WHITE;
+        int[] legal = new int[256];
+        for (int move : moves) {
+            int count = board.generateMoves(side, legal);
+            boolean found = false;
+            for (int i = 0; i < count && !found; i++) {
+                found = legal[i] == move;
+            }
+            if (!found) {
+                break;
+            }
+            board.makeMove(move);
+            positions.add(board.copyBoard());
+            side = side.equals(WHITE) ? BLACK : WHITE;
+        }
+        return positions;
+    }
+
+    private static void placePiece(Board board, String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 4) {
+            return;
+        }
+        Position pos = new Position(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        Piece piece = createPiece(parts[2].trim(), parts[3].trim(), pos);
+        if (piece != null) {
+            board.placePiece(piece, pos);
+        }
+    }
+
+    private static Piece createPiece(String color, String type, Position pos) {
+        switch (type) {
+            case "King": return new pieces.King(color, pos);
+            case "Queen": return new pieces.Queen(color, pos);
+            case "Rook": return new pieces.Rook(color, pos);
+            case "Bishop": return new pieces.Bishop(color, pos);
+            case "Knight": return new pieces.Knight(color, pos);
+            case "Pawn": return new pieces.Pawn(color, pos);
+            default: return null;
+        }
+    }
+}
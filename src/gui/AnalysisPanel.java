@@ -0,0 +1,200 @@
+package gui;
+
+import board.Board;
+import engine.Evaluator;
+import engine.Search;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shows live engine analysis of the position on the board: evaluation,
+ * depth, speed and the best few lines.
+ *
+ * The search runs on a background thread and analyses a copy of the
+ * board. Its results go into a shared snapshot. A Swing timer copies
+ * that snapshot to the labels a few times a second, so a burst of
+ * iterations causes one repaint, not one per line. When the position
+ * changes, the running search is stopped and the new one starts
+ * straight away.
+ *
+ * @author Abheek Pradhan
+ */
+class AnalysisPanel extends JPanel {
+    private static final int LINES = 3;
+    private static final int TABLE_MB = 32;
+    private static final int REFRESH_MILLIS = 150;
+
+    private final Search search = new Search(new TranspositionTable(TABLE_MB), new Evaluator());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gui-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Written by the search thread, read by the refresh timer
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+    private Snapshot shown;
+
+    // Incremented on every position change; stale searches stop themselves
+    private volatile int generation;
+    private boolean enabled;
+    private Board board;
+    private String sideToMove;
+
+    private final JCheckBox enableBox = new JCheckBox("Analyse");
+    private final JLabel evaluationLabel = new JLabel("-");
+    private final JLabel depthLabel = new JLabel("-");
+    private final JLabel speedLabel = new JLabel("-");
+    private final JLabel[] lineLabels = new JLabel[LINES];
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> showLatest());
+
+    AnalysisPanel() {
+        super(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createTitledBorder("Analysis"));
+        search.setThreads(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+        JPanel summary = new JPanel(new FlowLayout(FlowLayout.LEFT, 12, 0));
+        evaluationLabel.setFont(new Font("Monospaced", Font.BOLD, 14));
+        summary.add(enableBox);
+        summary.add(evaluationLabel);
+        summary.add(depthLabel);
+        summary.add(speedLabel);
+
+        JPanel lines = new JPanel(new GridLayout(LINES, 1));
+        for (int i = 0; i < LINES; i++) {
+            lineLabels[i] = new JLabel(" ");
+            lineLabels[i].setFont(new Font("Monospaced", Font.PLAIN, 12));
+            lines.add(lineLabels[i]);
+        }
+
+        add(summary, BorderLayout.NORTH);
+        add(lines, BorderLayout.CENTER);
+
+        enableBox.addActionListener(e -> setAnalysing(enableBox.isSelected()));
+    }
+
+    /**
+     * Tells the panel the position changed. Restarts analysis right away
+     * if it is switched on. Must be called on the event dispatch thread.
+     */
+    public void positionChanged(Board board, String sideToMove) {
+        this.board = board;
+        this.sideToMove = sideToMove;
+        if (enabled) {
+            restart();
+        }
+    }
+
+    private void setAnalysing(boolean analysing) {
+        enabled = analysing;
+        if (analysing) {
+            refreshTimer.start();
+            restart();
+        } else {
+            generation++;
+            search.stop();
+            refreshTimer.stop();
+        }
+    }
+
+    private void restart() {
+        int current = ++generation;
+        search.stop();
+        latest.set(null);
+        clearLines();
+        if (board == null) {
+            return;
+        }
+
+        Board position = board.copyBoard();
+        String side = sideToMove;
+        SearchLimits limits = new SearchLimits();
+        limits.setInfinite(true);
+        limits.setMultiPv(LINES);
+
+        executor.execute(() -> {
+            if (generation != current) {
+                return;  // Superseded before it started
+            }
+            SearchResult[] results = new SearchResult[LINES];
+            search.search(position, side, limits, result -> {
+                if (generation != current) {
+                    // The position changed while this search was starting up
+                    search.stop();
+                    return;
+                }
+                results[result.getMultiPvIndex() - 1] = result;
+                latest.set(new Snapshot(current, results.clone(), side));
+            });
+        });
+    }
+
+    /**
+     * Copies the newest snapshot into the labels, if there is one the
+     * panel has not shown yet.
+     */
+    private void showLatest() {
+        Snapshot snapshot = latest.get();
+        if (snapshot == null || snapshot == shown || snapshot.generation != generation) {
+            return;
+        }
+        shown = snapshot;
+
+        SearchResult best = snapshot.results[0];
+        if (best == null) {
+            return;
+        }
+        evaluationLabel.setText(formatScore(best, snapshot.side));
+        depthLabel.setText("depth " + best.getDepth());
+        speedLabel.setText(String.format("%,d kn/s", best.getNodesPerSecond() / 1000));
+        for (int i = 0; i < LINES; i++) {
+            SearchResult line = snapshot.results[i];
+            lineLabels[i].setText(line == null ? " "
+                : String.format("%d. %6s  %s", i + 1, formatScore(line, snapshot.side),
+                                line.principalVariationText()));
+        }
+    }
+
+    private void clearLines() {
+        shown = null;
+        evaluationLabel.setText("-");
+        depthLabel.setText("-");
+        speedLabel.setText("-");
+        for (JLabel label : lineLabels) {
+            label.setText(" ");
+        }
+    }
+
+    /**
+     * Formats a score from White's point of view, e.g. "+0.35" or "#-3".
+     */
+    private static String formatScore(SearchResult result, String side) {
+        int sign = side.equals("white") ? 1 : -1;
+        if (result.isMateScore()) {
+            return "#" + sign * result.getMateInMoves();
+        }
+        return String.format("%+.2f", sign * result.getScore() / 100.0);
+    }
+
+    /**
+     * The best lines found so far for one position.
+     */
+    private static final class Snapshot {
+        final int generation;
+        final SearchResult[] results;
+        final String side;
+
+        Snapshot(int generation, SearchResult[] results, String side) {
+            this.generation = generation;
+            this.results = results;
+            this.side = side;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package gui;
+
+import board.Board;
+import board.BoardListener;
+import pieces.Piece;
+import utils.Position;
+
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Paints the chess board as a single component.
+ * The checkered background is rendered once into an image and reused.
+ * Pieces and highlights are drawn on top of it, and only the squares
+ * that actually changed are repainted. A selected piece can be dragged;
+ * while dragging, only the area under the sprite is redrawn.
+ *
+ * Square presses and releases are reported to a listener as board
+ * positions, so the same click-to-select, click-to-move handling drives
+ * both clicking and dragging.
+ *
+ * Registered as a {@link BoardListener}, the view redraws exactly the
+ * squares a move touches without rescanning the board.
+ *
+ * @author Abheek Pradhan
+ */
+class BoardView extends JComponent implements BoardListener {
+    private static final int BOARD_SIZE = 8;
+    private static final int SQUARES = BOARD_SIZE * BOARD_SIZE;
+    private static final int PIECE_MARGIN = 5;
+    private static final int HIGHLIGHT_WIDTH = 2;
+
+    private int squareSize;
+    private Color lightSquareColor;
+    private Color darkSquareColor;
+    private BufferedImage backgroundLayer;
+
+    private Board board;
+    private Map<String, ImageIcon> pieceImages;
+    private final Image[] drawnSprites = new Image[SQUARES];
+    private final Consumer<Position> squareListener;
+
+    // Highlighted squares, one bit per square index
+    private long selectedSquares;
+    private long moveSquares;
+    private long captureSquares;
+    private long checkSquares;
+    private Color checkHighlightColor = new Color(255, 0, 0, 50);
+
+    // Drag state; dragSquare is -1 when nothing is being dragged
+    private int dragSquare = -1;
+    private int dragX;
+    private int dragY;
+    private boolean dragMoved;
+
+    BoardView(int squareSize, Color lightSquareColor, Color darkSquareColor,
+              Consumer<Position> squareListener) {
+        this.squareSize = squareSize;
+        this.lightSquareColor = lightSquareColor;
+        this.darkSquareColor = darkSquareColor;
+        this.squareListener = squareListener;
+        setOpaque(true);
+        setDoubleBuffered(true);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                handlePress(e);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                handleDrag(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                handleRelease(e);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(BOARD_SIZE * squareSize, BOARD_SIZE * squareSize);
+    }
+
+    /**
+     * Changes the square size. The background is re-rendered and the
+     * whole board repainted.
+     */
+    public void setSquareSize(int squareSize) {
+        this.squareSize = squareSize;
+        backgroundLayer = null;
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Changes the square colors.
+     */
+    public void setSquareColors(Color lightSquareColor, Color darkSquareColor) {
+        this.lightSquareColor = lightSquareColor;
+        this.darkSquareColor = darkSquareColor;
+        backgroundLayer = null;
+        repaint();
+    }
+
+    /**
+     * Changes the tint used for a king in check.
+     */
+    public void setCheckHighlightColor(Color checkHighlightColor) {
+        this.checkHighlightColor = checkHighlightColor;
+        repaintSquares(checkSquares);
+    }
+
+    /**
+     * Sets the piece images, keyed by "color_type" such as "white_knight".
+     */
+    public void setPieceImages(Map<String, ImageIcon> pieceImages) {
+        this.pieceImages = pieceImages;
+        refresh();
+    }
+
+    /**
+     * Shows a different board, for example after undo or loading a game.
+     */
+    public void setBoard(Board board) {
+        this.board = board;
+        dragSquare = -1;
+        refresh();
+    }
+
+    /**
+     * Finds the squares whose piece differs from what was last drawn and
+     * repaints only those.
+     */
+    public void refresh() {
+        for (int square = 0; square < SQUARES; square++) {
+            Image sprite = spriteAt(square);
+            if (sprite != drawnSprites[square]) {
+                drawnSprites[square] = sprite;
+                repaintSquare(square);
+            }
+        }
+    }
+
+    @Override
+    public void squareChanged(int square, Piece piece) {
+        Image sprite = spriteFor(piece);
+        if (sprite != drawnSprites[square]) {
+            drawnSprites[square] = sprite;
+            repaintSquare(square);
+        }
+    }
+
+    /**
+     * Tints the given squares to show a king in check.
+     */
+    public void setCheckSquares(long squares) {
+        repaintSquares(checkSquares ^ squares);
+        checkSquares = squares;
+    }
+
+    /**
+     * Marks a square as selected, or clears the selection if pos is null.
+     */
+    public void setSelected(Position pos) {
+        long squares = pos == null ? 0L : 1L << pos.toIndex();
+        repaintSquares(selectedSquares ^ squares);
+        selectedSquares = squares;
+    }
+
+    /**
+     * Highlights the destinations available to the selected piece.
+     *
+     * @param moves Empty destination squares
+     * @param captures Occupied destination squares
+     */
+    public void setMoveHighlights(long moves, long captures) {
+        repaintSquares((moveSquares ^ moves) | (captureSquares ^ captures));
+        moveSquares = moves;
+        captureSquares = captures;
+    }
+
+    /**
+     * Removes the selection and every move highlight.
+     */
+    public void clearHighlights() {
+        setSelected(null);
+        setMoveHighlights(0L, 0L);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (backgroundLayer == null) {
+            backgroundLayer = renderBackground();
+        }
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.drawImage(backgroundLayer, 0, 0, null);
+
+        // Only visit squares that intersect the area being repainted
+        int firstCol = Math.max(0, clip.x / squareSize);
+        int lastCol = Math.min(BOARD_SIZE - 1, (clip.x + clip.width - 1) / squareSize);
+        int firstRow = Math.max(0, clip.y / squareSize);
+        int lastRow = Math.min(BOARD_SIZE - 1, (clip.y + clip.height - 1) / squareSize);
+
+        Graphics2D g2 = (Graphics2D) g;
+        Stroke oldStroke = g2.getStroke();
+        g2.setStroke(new BasicStroke(HIGHLIGHT_WIDTH));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintSquare(g2, row * BOARD_SIZE + col, col * squareSize, row * squareSize);
+            }
+        }
+        g2.setStroke(oldStroke);
+
+        if (dragSquare >= 0 && dragMoved && drawnSprites[dragSquare] != null) {
+            g.drawImage(drawnSprites[dragSquare], dragX - squareSize / 2 + PIECE_MARGIN,
+                        dragY - squareSize / 2 + PIECE_MARGIN, null);
+        }
+    }
+
+    private void paintSquare(Graphics2D g, int square, int x, int y) {
+        long bit = 1L << square;
+        if ((checkSquares & bit) != 0) {
+            g.setColor(checkHighlightColor);
+            g.fillRect(x, y, squareSize, squareSize);
+        }
+
+        Color border = (selectedSquares & bit) != 0 ? Color.YELLOW
+                     : (captureSquares & bit) != 0 ? Color.RED
+                     : (moveSquares & bit) != 0 ? Color.GREEN
+                     : null;
+        if (border != null) {
+            int inset = HIGHLIGHT_WIDTH / 2;
+            g.setColor(border);
+            g.drawRect(x + inset, y + inset, squareSize - HIGHLIGHT_WIDTH, squareSize - HIGHLIGHT_WIDTH);
+        }
+
+        Image sprite = drawnSprites[square];
+        if (sprite != null && !(square == dragSquare && dragMoved)) {
+            g.drawImage(sprite, x + PIECE_MARGIN, y + PIECE_MARGIN, null);
+        }
+    }
+
+    private BufferedImage renderBackground() {
+        int size = BOARD_SIZE * squareSize;
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        BufferedImage image = config != null
+            ? config.createCompatibleImage(size, size)
+            : new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                g.setColor((row + col) % 2 == 0 ? lightSquareColor : darkSquareColor);
+                g.fillRect(col * squareSize, row * squareSize, squareSize, squareSize);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    private Image spriteAt(int square) {
+        return board == null ? null : spriteFor(board.getPiece(Position.fromIndex(square)));
+    }
+
+    private Image spriteFor(Piece piece) {
+        if (piece == null || pieceImages == null) {
+            return null;
+        }
+        ImageIcon icon = pieceImages.get(piece.getColor() + "_" +
+                                         piece.getClass().getSimpleName().toLowerCase());
+        return icon != null ? icon.getImage() : null;
+    }
+
+    private void handlePress(MouseEvent e) {
+        int square = squareAt(e.getX(), e.getY());
+        if (square < 0) {
+            return;
+        }
+        squareListener.accept(Position.fromIndex(square));
+
+        // Pressing a piece that is now selected starts a potential drag
+        if (selectedSquares == 1L << square && drawnSprites[square] != null) {
+            dragSquare = square;
+            dragX = e.getX();
+            dragY = e.getY();
+            dragMoved = false;
+        }
+    }
+
+    private void handleDrag(MouseEvent e) {
+        if (dragSquare < 0) {
+            return;
+        }
+        repaintDragSprite();
+        if (!dragMoved) {
+            dragMoved = true;
+            repaintSquare(dragSquare);
+        }
+        dragX = e.getX();
+        dragY = e.getY();
+        repaintDragSprite();
+    }
+
+    private void handleRelease(MouseEvent e) {
+        if (dragSquare < 0) {
+            return;
+        }
+        int from = dragSquare;
+        boolean moved = dragMoved;
+        repaintDragSprite();
+        dragSquare = -1;
+        dragMoved = false;
+        repaintSquare(from);
+
+        int target = squareAt(e.getX(), e.getY());
+        if (moved && target >= 0 && target != from) {
+            squareListener.accept(Position.fromIndex(target));
+        }
+    }
+
+    private int squareAt(int x, int y) {
+        int col = x / squareSize;
+        int row = y / squareSize;
+        if (x < 0 || y < 0 || col >= BOARD_SIZE || row >= BOARD_SIZE) {
+            return -1;
+        }
+        return row * BOARD_SIZE + col;
+    }
+
+    private void repaintSquares(long squares) {
+        while (squares != 0) {
+            repaintSquare(Long.numberOfTrailingZeros(squares));
+            squares &= squares - 1;
+        }
+    }
+
+    private void repaintSquare(int square) {
+        repaint((square % BOARD_SIZE) * squareSize, (square / BOARD_SIZE) * squareSize,
+                squareSize, squareSize);
+    }
+
+    private void repaintDragSprite() {
+        repaint(dragX - squareSize / 2, dragY - squareSize / 2, squareSize, squareSize);
+    }
+}
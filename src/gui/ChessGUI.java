@@ -1,6 +1,15 @@
 package gui;
 
 import board.Board;
+import board.BoardListener;
+import board.GameStatus;
+import board.Move;
+import engine.AnalysisCache;
+import engine.SearchLimits;
+import game.ChessClock;
+import game.MoveHistory;
+import game.Pgn;
+import game.SavedGame;
 import pieces.Piece;
 import utils.Position;
 
@@ -9,8 +18,10 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
-import javax.imageio.ImageIO;
+import java.util.concurrent.ExecutionException;
 
 /**
  * ChessGUI class provides the graphical interface for the chess game.
@@ -29,6 +40,9 @@ public class ChessGUI extends JFrame {
     private static final int BOARD_SIZE = 8;
     private static final String WHITE = "white";
     private static final String BLACK = "black";
+    private static final long COMPUTER_MOVE_MILLIS = 1000;
+    private static final String[] TIME_CONTROLS = {"1+0", "3+2", "5+0", "10+5", "15+10", "40/90+30"};
+    private static final int CLOCK_REFRESH_MILLIS = 100;
 
     // Board appearance settings
     private int squareSize = 60;
@@ -41,27 +55,60 @@ public class ChessGUI extends JFrame {
     private Position selectedPosition;
     private String currentPlayer;
     private boolean isInCheck;
+    // Set by a flag fall, mate or draw; no more moves are taken until a new game
+    private boolean gameOver;
 
-    // Move history tracking
-    private ArrayList<String> moveHistory;
-    private ArrayList<Board> boardStates;
+    // Moves played since the starting position; undo replays them
+    private MoveHistory moveHistory;
+
+    // Legal destinations per source square, computed in the background
+    private long[] legalTargets;
+    private long legalTargetsKey;
+    private String legalTargetsColor;
+    private LegalMoveWorker legalMoveWorker;
+
+    // The side the computer plays, or null when two people play
+    private String computerColor;
+    private final ComputerOpponent computer = new ComputerOpponent(true);
+
+    // Time control such as "3+2", or null for untimed games
+    private String timeControl;
+    private ChessClock clock;
 
     // GUI components
-    private JPanel boardPanel;
-    private JLabel[][] squareLabels;
+    private BoardView boardView;
+    private AnalysisPanel analysisPanel;
+    private ExplorerPanel explorerPanel;
+    private Board displayedBoard;
+    private final BoardListener boardEvents = new BoardListener() {
+        @Override
+        public void pieceCaptured(Piece captured) {
+            addCapturedPiece(captured);
+        }
+
+        @Override
+        public void checkChanged(String color, boolean inCheck) {
+            updateCheckHighlight();
+        }
+    };
     private JLabel statusLabel;
+    private JLabel whiteClockLabel;
+    private JLabel blackClockLabel;
+    private javax.swing.Timer clockTimer;
     private JList<String> moveHistoryList;
-    private DefaultListModel<String> moveHistoryModel;
+    private MoveListModel moveHistoryModel;
     private JPanel capturedPiecesPanel;
     private JPanel whiteCapturedPanel;
     private JPanel blackCapturedPanel;
     private Map<String, ImageIcon> pieceImages;
+    private SpriteCache sprites;
 
     public ChessGUI() {
         initializeGame();
         initializeGUI();
         loadPieceImages();
         updateBoardDisplay();
+        positionChanged();
     }
 
     private void initializeGame() {
@@ -69,10 +116,8 @@ public class ChessGUI extends JFrame {
         currentPlayer = WHITE;
         selectedPosition = null;
         isInCheck = false;
-        moveHistory = new ArrayList<>();
-        boardStates = new ArrayList<>();
+        moveHistory = new MoveHistory();
         pieceImages = new HashMap<>();
-        saveGameState(); // Save initial state
     }
 
     private void initializeGUI() {
@@ -84,6 +129,12 @@ public class ChessGUI extends JFrame {
         createStatusPanel();
         createBoardPanel();
         createSidePanel();
+        analysisPanel = new AnalysisPanel();
+        explorerPanel = new ExplorerPanel();
+        JPanel southPanel = new JPanel(new BorderLayout(5, 5));
+        southPanel.add(analysisPanel, BorderLayout.CENTER);
+        southPanel.add(explorerPanel, BorderLayout.EAST);
+        add(southPanel, BorderLayout.SOUTH);
         setJMenuBar(createMenuBar());
 
         pack();
@@ -94,7 +145,21 @@ public class ChessGUI extends JFrame {
     private void createStatusPanel() {
         statusLabel = new JLabel("White's turn", SwingConstants.CENTER);
         statusLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        add(statusLabel, BorderLayout.NORTH);
+
+        // Clocks stay empty until a time control is chosen
+        whiteClockLabel = new JLabel(" ", SwingConstants.LEFT);
+        blackClockLabel = new JLabel(" ", SwingConstants.RIGHT);
+        whiteClockLabel.setFont(new Font("Monospaced", Font.BOLD, 16));
+        blackClockLabel.setFont(new Font("Monospaced", Font.BOLD, 16));
+
+        JPanel statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
+        statusPanel.add(whiteClockLabel, BorderLayout.WEST);
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(blackClockLabel, BorderLayout.EAST);
+        add(statusPanel, BorderLayout.NORTH);
+
+        clockTimer = new javax.swing.Timer(CLOCK_REFRESH_MILLIS, e -> updateClocks());
     }
 
     private JMenuBar createMenuBar() {
@@ -106,17 +171,110 @@ public class ChessGUI extends JFrame {
         addMenuItem(gameMenu, "Save Game", e -> saveGame());
         addMenuItem(gameMenu, "Load Game", e -> loadGame());
         gameMenu.addSeparator();
+        gameMenu.add(createOpponentMenu());
+        gameMenu.add(createTimeControlMenu());
+        gameMenu.addSeparator();
         addMenuItem(gameMenu, "Exit", e -> System.exit(0));
 
         // Settings Menu
         JMenu settingsMenu = new JMenu("Settings");
         addMenuItem(settingsMenu, "Board Settings", e -> showSettingsDialog());
+        addMenuItem(settingsMenu, "Analysis Cache", e -> showAnalysisCache());
+        addMenuItem(settingsMenu, "Opening Explorer File", e -> chooseExplorerFile());
 
         menuBar.add(gameMenu);
         menuBar.add(settingsMenu);
         return menuBar;
     }
 
+    private JMenu createOpponentMenu() {
+        JMenu opponentMenu = new JMenu("Opponent");
+        ButtonGroup group = new ButtonGroup();
+        String[][] choices = {{"Human", null}, {"Computer Plays White", WHITE}, {"Computer Plays Black", BLACK}};
+        for (String[] choice : choices) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(choice[0], choice[1] == null);
+            item.addActionListener(e -> setComputerColor(choice[1]));
+            group.add(item);
+            opponentMenu.add(item);
+        }
+        opponentMenu.addSeparator();
+        JCheckBoxMenuItem ponderItem = new JCheckBoxMenuItem("Think on My Time", true);
+        ponderItem.addActionListener(e -> computer.setPondering(ponderItem.isSelected()));
+        opponentMenu.add(ponderItem);
+        return opponentMenu;
+    }
+
+    private JMenu createTimeControlMenu() {
+        JMenu timeMenu = new JMenu("Time Control");
+        ButtonGroup group = new ButtonGroup();
+        JRadioButtonMenuItem untimed = new JRadioButtonMenuItem("Untimed", true);
+        untimed.addActionListener(e -> setTimeControl(null));
+        group.add(untimed);
+        timeMenu.add(untimed);
+        for (String control : TIME_CONTROLS) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(control);
+            item.addActionListener(e -> setTimeControl(control));
+            group.add(item);
+            timeMenu.add(item);
+        }
+        return timeMenu;
+    }
+
+    /**
+     * Switches to a new time control, written like "3+2" or null for
+     * none, and starts a new game with it.
+     */
+    private void setTimeControl(String control) {
+        timeControl = control;
+        newGame();
+    }
+
+    /**
+     * Sets up a fresh clock for the chosen time control and starts it
+     * for the side to move.
+     */
+    private void resetClock() {
+        if (clock != null) {
+            clock.stop();
+        }
+        clock = timeControl == null ? null : ChessClock.parse(timeControl);
+        if (clock != null) {
+            clock.start(currentPlayer);
+            clockTimer.start();
+        } else {
+            clockTimer.stop();
+        }
+        updateClocks();
+    }
+
+    /**
+     * Shows both clocks and ends the game when the side to move runs out
+     * of time.
+     */
+    private void updateClocks() {
+        if (clock == null) {
+            whiteClockLabel.setText(" ");
+            blackClockLabel.setText(" ");
+            return;
+        }
+        whiteClockLabel.setText(clock.format(WHITE));
+        blackClockLabel.setText(clock.format(BLACK));
+        String running = clock.getRunning();
+        whiteClockLabel.setForeground(WHITE.equals(running) ? Color.BLACK : Color.GRAY);
+        blackClockLabel.setForeground(BLACK.equals(running) ? Color.BLACK : Color.GRAY);
+
+        if (running != null && clock.isFlagged(running)) {
+            gameOver = true;
+            clock.stop();
+            clockTimer.stop();
+            computer.cancel();
+            clearHighlights();
+            selectedPosition = null;
+            updateClocks();
+            showGameOverDialog(running.equals(WHITE) ? BLACK : WHITE, "time");
+        }
+    }
+
     private void addMenuItem(JMenu menu, String title, ActionListener action) {
         JMenuItem item = new JMenuItem(title);
         item.addActionListener(action);
@@ -124,29 +282,10 @@ public class ChessGUI extends JFrame {
     }
 
     private void createBoardPanel() {
-        boardPanel = new JPanel(new GridLayout(BOARD_SIZE, BOARD_SIZE));
-        squareLabels = new JLabel[BOARD_SIZE][BOARD_SIZE];
-
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                JLabel square = new JLabel("", SwingConstants.CENTER);
-                square.setPreferredSize(new Dimension(squareSize, squareSize));
-                square.setOpaque(true);
-                setSquareColor(square, row, col);
-
-                final Position pos = new Position(row, col);
-                square.addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        handleSquareClick(pos);
-                    }
-                });
-
-                squareLabels[row][col] = square;
-                boardPanel.add(square);
-            }
-        }
-        add(boardPanel, BorderLayout.CENTER);
+        boardView = new BoardView(squareSize, lightSquareColor, darkSquareColor,
+                                  this::handleSquareClick);
+        boardView.setCheckHighlightColor(checkHighlightColor);
+        add(boardView, BorderLayout.CENTER);
     }
 
     private void createSidePanel() {
@@ -154,9 +293,11 @@ public class ChessGUI extends JFrame {
         sidePanel.setPreferredSize(new Dimension(200, BOARD_SIZE * squareSize));
 
         // Move history
-        moveHistoryModel = new DefaultListModel<>();
+        moveHistoryModel = new MoveListModel(moveHistory);
         moveHistoryList = new JList<>(moveHistoryModel);
         moveHistoryList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        // Sizes rows from one sample line instead of rendering every move
+        moveHistoryList.setPrototypeCellValue("Knight: G1 → F3 (captures Knight) +");
         JScrollPane scrollPane = new JScrollPane(moveHistoryList);
 
         // Captured pieces panels
@@ -183,28 +324,24 @@ public class ChessGUI extends JFrame {
     }
 
     /**
-     * Loads piece images and scales them to fit the current board size.
-     * Images are stored in the pieces map for quick access during board updates.
+     * Starts decoding and scaling the piece images in the background.
+     * The board is drawn without pieces until they arrive.
      */
     private void loadPieceImages() {
-        String[] pieces = {"pawn", "rook", "knight", "bishop", "queen", "king"};
-        String[] colors = {WHITE, BLACK};
-
-        for (String color : colors) {
-            for (String piece : pieces) {
-                String filename = color + "_" + piece + ".png";
-                try {
-                    Image img = ImageIO.read(new File("src/resources/pieces/" + filename));
-                    Image scaled = img.getScaledInstance(
-                        squareSize - 10, 
-                        squareSize - 10, 
-                        Image.SCALE_SMOOTH
-                    );
-                    pieceImages.put(color + "_" + piece, new ImageIcon(scaled));
-                } catch (IOException e) {
-                    System.err.println("Failed to load image: " + filename);
-                }
-            }
+        SpriteCache.loadAsync().thenAccept(cache -> SwingUtilities.invokeLater(() -> {
+            sprites = cache;
+            applyPieceImages();
+        }));
+    }
+
+    /**
+     * Switches to the cached piece images for the current square size.
+     */
+    private void applyPieceImages() {
+        if (sprites != null) {
+            pieceImages = sprites.icons(squareSize);
+            boardView.setPieceImages(pieceImages);
+            updateCapturedPieces();
         }
     }
 
@@ -213,6 +350,9 @@ public class ChessGUI extends JFrame {
      * Manages piece selection, movement, and turn progression.
      */
     private void handleSquareClick(Position clickedPosition) {
+        if (gameOver || currentPlayer.equals(computerColor)) {
+            return;  // Game over, or waiting for the computer's move
+        }
         if (selectedPosition == null) {
             // First click - select piece
             Piece piece = board.getPiece(clickedPosition);
@@ -223,128 +363,210 @@ public class ChessGUI extends JFrame {
             }
         } else {
             // Second click - attempt to move piece
-            Piece sourcePiece = board.getPiece(selectedPosition);
-            Piece targetPiece = board.getPiece(clickedPosition);
-            
-            boolean moveSuccessful = board.movePiece(selectedPosition, clickedPosition);
-            
-            if (moveSuccessful) {
-                // Record move in history
-                String moveNotation = createMoveNotation(sourcePiece, selectedPosition, 
-                                                       clickedPosition, targetPiece);
-                moveHistoryModel.addElement(moveNotation);
-                moveHistory.add(moveNotation);
-
-                // Handle captured pieces
-                if (targetPiece != null) {
-                    addCapturedPiece(targetPiece);
-                }
+            playMove(selectedPosition, clickedPosition);
 
-                // Check for checkmate or check
-                String nextPlayer = currentPlayer.equals(WHITE) ? BLACK : WHITE;
-                if (board.isCheckmate(nextPlayer)) {
-                    updateBoardDisplay();
-                    showGameOverDialog(currentPlayer, "Checkmate!");
-                    return;
-                } else if (board.isInCheck(nextPlayer)) {
-                    isInCheck = true;
-                    showCheckNotification();
-                } else {
-                    isInCheck = false;
+            // Clean up highlights and selection, also when the move ended
+            // the game; the board view already redrew the moved pieces
+            // through change events
+            clearHighlights();
+            selectedPosition = null;
+        }
+    }
+
+    /**
+     * Plays a move for the side to move if it is legal, records it and
+     * passes the turn.
+     *
+     * @return False if the move ended the game
+     */
+    private boolean playMove(Position from, Position to) {
+        int pieceType = board.getPieceType(from.toIndex());
+        int capturedType = board.getPieceType(to.toIndex());
+
+        boolean moveSuccessful = board.movePiece(from, to);
+
+        if (moveSuccessful) {
+            if (clock != null) {
+                clock.press();
+            }
+
+            // Check for checkmate or check
+            String nextPlayer = currentPlayer.equals(WHITE) ? BLACK : WHITE;
+            GameStatus status = board.gameStatus(nextPlayer);
+
+            // Record move in history
+            moveHistory.add(Move.of(from.toIndex(), to.toIndex()), pieceType, capturedType,
+                            status == GameStatus.CHECK || status == GameStatus.CHECKMATE);
+            moveHistoryModel.historyChanged();
+            if (status.isGameOver()) {
+                computer.cancel();
+                if (clock != null) {
+                    clock.stop();
+                    updateClocks();
                 }
+            }
+            if (status == GameStatus.CHECKMATE) {
+                gameOver = true;
+                showGameOverDialog(currentPlayer, "Checkmate!");
+                return false;
+            } else if (status == GameStatus.STALEMATE) {
+                gameOver = true;
+                showDrawDialog("Stalemate");
+                return false;
+            } else if (status == GameStatus.INSUFFICIENT_MATERIAL) {
+                gameOver = true;
+                showDrawDialog("Insufficient material");
+                return false;
+            }
 
-                // Switch turns
-                currentPlayer = nextPlayer;
-                updateStatusLabel();
-                saveGameState();
+            isInCheck = status == GameStatus.CHECK;
+            if (isInCheck) {
+                showCheckNotification();
             }
 
-            // Clean up highlights and selection
-            clearHighlights();
-            selectedPosition = null;
-            updateBoardDisplay();
+            // Switch turns
+            currentPlayer = nextPlayer;
+            updateStatusLabel();
+            positionChanged();
         }
+        return true;
     }
 
     /**
-     * Creates a descriptive notation for a move, including piece type,
-     * source and destination squares, and capture information.
+     * Lets the computer take a side, or hands both sides to people if
+     * color is null.
      */
-    private String createMoveNotation(Piece piece, Position from, Position to, Piece captured) {
-        StringBuilder notation = new StringBuilder();
-        notation.append(piece.getClass().getSimpleName())
-               .append(": ")
-               .append(from.toString())
-               .append(" → ")
-               .append(to.toString());
-        
-        if (captured != null) {
-            notation.append(" (captures ")
-                   .append(captured.getClass().getSimpleName())
-                   .append(")");
+    private void setComputerColor(String color) {
+        computerColor = color;
+        computer.cancel();
+        if (color != null) {
+            computer.openAnalysisCache();
         }
-        
-        if (board.isInCheck(currentPlayer.equals(WHITE) ? BLACK : WHITE)) {
-            notation.append(" +");
+        clearHighlights();
+        selectedPosition = null;
+        updateStatusLabel();
+        requestComputerMove();
+    }
+
+    /**
+     * Asks the computer for a move if it is its turn.
+     */
+    private void requestComputerMove() {
+        if (!gameOver && currentPlayer.equals(computerColor)) {
+            SearchLimits limits = clock != null ? clock.toSearchLimits()
+                                                : SearchLimits.moveTime(COMPUTER_MOVE_MILLIS);
+            computer.requestMove(board, currentPlayer, limits, this::computerMoveReady);
         }
-        
-        return notation.toString();
+    }
+
+    private void computerMoveReady(int move) {
+        if (move == Move.NONE || gameOver || !currentPlayer.equals(computerColor)) {
+            return;
+        }
+        playMove(Position.fromIndex(Move.from(move)), Position.fromIndex(Move.to(move)));
     }
 
     /**
      * Highlights legal moves for the selected piece.
-     * Shows possible destinations and captures.
+     * Shows possible destinations and captures. If the background move
+     * generation has not finished yet, the highlights appear when it does.
      */
     private void highlightLegalMoves(Piece piece) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Position pos = new Position(row, col);
-                if (piece.canMove(board, pos) && 
-                    !board.wouldMoveExposeCheck(piece.getPosition(), pos)) {
-                    
-                    Piece targetPiece = board.getPiece(pos);
-                    if (targetPiece != null && !targetPiece.getColor().equals(piece.getColor())) {
-                        // Highlight capture squares differently
-                        highlightCaptureSquare(pos);
-                    } else if (targetPiece == null) {
-                        // Highlight empty squares
-                        highlightLegalSquare(pos);
-                    }
-                }
-            }
+        if (!hasLegalTargets()) {
+            return;
         }
+        long targets = legalTargets[piece.getPosition().toIndex()];
+        // Capture squares are highlighted differently from empty ones
+        long captures = targets & board.getOccupancy();
+        boardView.setMoveHighlights(targets & ~captures, captures);
     }
 
     /**
-     * Saves the current game state for undo functionality and game restoration.
+     * Brings the background work up to date after the board or side to
+     * move changed: legal move highlighting, live analysis and the
+     * opening explorer.
      */
-    private void saveGameState() {
-        boardStates.add(board.copyBoard());
-        if (boardStates.size() > 50) {  // Limit history size
-            boardStates.remove(0);
+    private void positionChanged() {
+        refreshLegalMoves();
+        analysisPanel.positionChanged(board, currentPlayer);
+        explorerPanel.positionChanged(board, currentPlayer);
+        requestComputerMove();
+    }
+
+    /**
+     * Starts computing the side to move's legal moves on a background
+     * thread. Any computation still running for an older position is
+     * cancelled.
+     */
+    private void refreshLegalMoves() {
+        if (legalMoveWorker != null) {
+            legalMoveWorker.cancel(false);
         }
+        legalTargets = null;
+        legalMoveWorker = new LegalMoveWorker(board.copyBoard(), currentPlayer, this::legalMovesReady);
+        legalMoveWorker.execute();
+    }
+
+    /**
+     * Stores finished background move generation and highlights the
+     * selected piece's moves if the user clicked it while waiting.
+     */
+    private void legalMovesReady(LegalMoveWorker worker) {
+        if (worker != legalMoveWorker) {
+            return;  // Superseded by a newer position
+        }
+        try {
+            legalTargets = worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return;
+        }
+        legalTargetsKey = worker.getPositionKey();
+        legalTargetsColor = worker.getColor();
+        legalMoveWorker = null;
+
+        if (selectedPosition != null) {
+            Piece piece = board.getPiece(selectedPosition);
+            if (piece != null) {
+                highlightLegalMoves(piece);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the cached legal moves belong to the current position.
+     */
+    private boolean hasLegalTargets() {
+        return legalTargets != null
+            && legalTargetsKey == board.getPositionKey()
+            && currentPlayer.equals(legalTargetsColor);
     }
 
     /**
      * Implements the undo move functionality.
-     * Restores the previous board state and updates the display.
+     * Restores the previous position by replaying the remaining moves
+     * from the start and updates the display.
+     * Against the computer, moves are taken back until it is the
+     * user's turn again.
      */
     private void undoMove() {
-        if (boardStates.size() > 1) {  // Keep initial state
-            boardStates.remove(boardStates.size() - 1);
-            board = boardStates.get(boardStates.size() - 1).copyBoard();
-            
-            if (!moveHistory.isEmpty()) {
-                moveHistory.remove(moveHistory.size() - 1);
-                moveHistoryModel.remove(moveHistoryModel.size() - 1);
-            }
-            
-            currentPlayer = currentPlayer.equals(WHITE) ? BLACK : WHITE;
+        if (!moveHistory.isEmpty()) {
+            computer.cancel();
+            do {
+                moveHistory.removeLast();
+            } while (MoveHistory.mover(moveHistory.size()).equals(computerColor) && !moveHistory.isEmpty());
+            board = moveHistory.replay(moveHistory.size());
+            currentPlayer = MoveHistory.mover(moveHistory.size());
+            gameOver = false;  // A clock that has run out ends it again
+            moveHistoryModel.historyChanged();
             isInCheck = board.isInCheck(currentPlayer);
-            
+            if (clock != null) {
+                clock.start(currentPlayer);  // Time already used stays used
+            }
+
             updateBoardDisplay();
             updateStatusLabel();
             updateCapturedPieces();
+            positionChanged();
         }
     }
 
@@ -354,7 +576,22 @@ public class ChessGUI extends JFrame {
     private void showGameOverDialog(String winner, String reason) {
         String message = String.format("%s wins by %s!", 
             winner.substring(0, 1).toUpperCase() + winner.substring(1), reason);
-            
+        // Sprites load in the background, and one that failed to decode is skipped
+        ImageIcon king = pieceImages.get(winner + "_king");
+        showGameOverOptions(message, king != null ? new ImageIcon(king.getImage()) : null);
+    }
+
+    /**
+     * Shows the game over dialog for a drawn game.
+     */
+    private void showDrawDialog(String reason) {
+        showGameOverOptions(String.format("Draw by %s!", reason.toLowerCase()), null);
+    }
+
+    /**
+     * Shows the game over message with options to start over, save or exit.
+     */
+    private void showGameOverOptions(String message, Icon icon) {
         Object[] options = {"New Game", "Save Game", "Exit"};
         int choice = JOptionPane.showOptionDialog(
             this,
@@ -362,7 +599,7 @@ public class ChessGUI extends JFrame {
             "Game Over",
             JOptionPane.YES_NO_CANCEL_OPTION,
             JOptionPane.INFORMATION_MESSAGE,
-            new ImageIcon(pieceImages.get(winner + "_king").getImage()),
+            icon,
             options,
             options[0]
         );
@@ -377,21 +614,37 @@ public class ChessGUI extends JFrame {
     /**
      * Saves the current game state to a file.
      * Includes board position, move history, and game metadata.
+     * With the PGN filter chosen or a name ending in .pgn, writes the
+     * moves as PGN instead.
      */
     private void saveGame() {
         JFileChooser fileChooser = new JFileChooser();
+        javax.swing.filechooser.FileNameExtensionFilter pgnFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("PGN (.pgn)", "pgn");
         fileChooser.setFileFilter(
             new javax.swing.filechooser.FileNameExtensionFilter("Chess Game (.txt)", "txt")
         );
+        fileChooser.addChoosableFileFilter(pgnFilter);
         
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try {
                 File file = fileChooser.getSelectedFile();
+                if (file.getName().endsWith(".pgn") || fileChooser.getFileFilter() == pgnFilter) {
+                    if (!file.getName().endsWith(".pgn")) {
+                        file = new File(file.getPath() + ".pgn");
+                    }
+                    Files.write(file.toPath(),
+                        Pgn.write(moveHistory).getBytes(StandardCharsets.UTF_8));
+                    JOptionPane.showMessageDialog(this, "Game saved as PGN!");
+                    return;
+                }
                 if (!file.getName().endsWith(".txt")) {
                     file = new File(file.getPath() + ".txt");
                 }
                 
-                try (PrintWriter writer = new PrintWriter(file)) {
+                // History lines contain "→", so don't depend on the platform charset
+                try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                        new FileOutputStream(file), StandardCharsets.UTF_8))) {
                     // Save game metadata
                     writer.println("CurrentPlayer: " + currentPlayer);
                     writer.println("IsInCheck: " + isInCheck);
@@ -410,8 +663,8 @@ public class ChessGUI extends JFrame {
                     
                     // Save move history
                     writer.println("MoveHistory:");
-                    for (String move : moveHistory) {
-                        writer.println(move);
+                    for (int i = 0; i < moveHistory.size(); i++) {
+                        writer.println(moveHistory.describe(i));
                     }
                 }
                 
@@ -437,54 +690,34 @@ public class ChessGUI extends JFrame {
         fileChooser.setFileFilter(
             new javax.swing.filechooser.FileNameExtensionFilter("Chess Game (.txt)", "txt")
         );
+        fileChooser.addChoosableFileFilter(
+            new javax.swing.filechooser.FileNameExtensionFilter("PGN (.pgn)", "pgn")
+        );
 
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (BufferedReader reader = new BufferedReader(
-                    new FileReader(fileChooser.getSelectedFile()))) {
-                
-                // Reset current game state
-                board = new Board();
-                moveHistory.clear();
-                moveHistoryModel.clear();
-                whiteCapturedPanel.removeAll();
-                blackCapturedPanel.removeAll();
-                
-                String line;
-                boolean readingBoard = false;
-                boolean readingMoves = false;
-
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("CurrentPlayer:")) {
-                        currentPlayer = line.split(": ")[1];
-                    } else if (line.startsWith("IsInCheck:")) {
-                        isInCheck = Boolean.parseBoolean(line.split(": ")[1]);
-                    } else if (line.equals("Board:")) {
-                        readingBoard = true;
-                        readingMoves = false;
-                        continue;
-                    } else if (line.equals("MoveHistory:")) {
-                        readingBoard = false;
-                        readingMoves = true;
-                        continue;
-                    }
+            if (fileChooser.getSelectedFile().getName().endsWith(".pgn")) {
+                loadPgn(fileChooser.getSelectedFile());
+                return;
+            }
+            try {
+                SavedGame saved = SavedGame.read(fileChooser.getSelectedFile().getPath());
 
-                    if (readingBoard) {
-                        String[] parts = line.split(",");
-                        if (parts.length == 4) {
-                            Position pos = new Position(
-                                Integer.parseInt(parts[0]),
-                                Integer.parseInt(parts[1])
-                            );
-                            createAndPlacePiece(parts[2], parts[3], pos);
-                        }
-                    } else if (readingMoves) {
-                        moveHistory.add(line);
-                        moveHistoryModel.addElement(line);
-                    }
-                }
+                // Reset current game state
+                computer.cancel();
+                board = saved.getFinalBoard();
+                moveHistory = MoveHistory.replayed(saved.getMoves());
+                currentPlayer = saved.getSideToMove();
+                isInCheck = board.isInCheck(currentPlayer);
+                gameOver = false;
+                selectedPosition = null;
+                clearHighlights();
+                moveHistoryModel.setHistory(moveHistory);
 
                 updateBoardDisplay();
                 updateStatusLabel();
+                updateCapturedPieces();
+                resetClock();
+                positionChanged();
                 revalidate();
                 repaint();
 
@@ -500,6 +733,74 @@ public class ChessGUI extends JFrame {
         }
     }
 
+    /**
+     * Replaces the game with the first game of a PGN file, positioned
+     * after its last move.
+     */
+    private void loadPgn(File file) {
+        Pgn pgn;
+        try {
+            pgn = Pgn.read(new String(Files.readAllBytes(file.toPath()),
+                                           StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this,
+                "Error loading game: " + e.getMessage(),
+                "Load Error",
+                JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
+
+        computer.cancel();
+        moveHistory = pgn.getHistory();
+        moveHistoryModel.setHistory(moveHistory);
+        board = pgn.getFinalBoard();
+        currentPlayer = pgn.getSideToMove();
+        isInCheck = board.isInCheck(currentPlayer);
+        gameOver = false;
+        selectedPosition = null;
+        clearHighlights();
+
+        updateBoardDisplay();
+        updateStatusLabel();
+        updateCapturedPieces();
+        resetClock();
+        positionChanged();
+        JOptionPane.showMessageDialog(this, "Loaded " + moveHistory.size() + " moves, result " + pgn.getResult());
+    }
+
+    /**
+     * Lets the user pick the games statistics the opening explorer shows.
+     */
+    private void chooseExplorerFile() {
+        JFileChooser fileChooser = new JFileChooser(".");
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try {
+                explorerPanel.open(fileChooser.getSelectedFile().toPath());
+                explorerPanel.positionChanged(board, currentPlayer);
+            } catch (IOException | IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(this,
+                    "Error opening explorer file: " + e.getMessage(),
+                    "Opening Explorer",
+                    JOptionPane.ERROR_MESSAGE
+                );
+            }
+        }
+    }
+
+    /**
+     * Shows the size of the on-disk analysis cache and how often the
+     * computer found its positions there this session.
+     */
+    private void showAnalysisCache() {
+        AnalysisCache cache = computer.getAnalysisCache();
+        JOptionPane.showMessageDialog(this,
+            cache != null ? cache.report()
+                          : "The analysis cache is opened when the computer first plays a side.",
+            "Analysis Cache",
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+
     /**
      * Shows the settings dialog for board customization.
      * Allows changing board colors and piece size.
@@ -537,7 +838,7 @@ public class ChessGUI extends JFrame {
             squareSize = sizeStr.contains("40") ? 40 : 
                         sizeStr.contains("60") ? 60 : 80;
             
-            loadPieceImages();  // Reload images for new size
+            applyPieceImages();  // Pre-scaled, so no decoding here
             recreateBoard();
             dialog.dispose();
         });
@@ -572,30 +873,12 @@ public class ChessGUI extends JFrame {
      * Used after applying new board settings.
      */
     private void recreateBoard() {
-        remove(boardPanel);
-        createBoardPanel();
-        updateBoardDisplay();
+        boardView.setSquareSize(squareSize);
+        boardView.setSquareColors(lightSquareColor, darkSquareColor);
         pack();
         setLocationRelativeTo(null);
     }
 
-    /**
-     * Creates and places a piece on the board during game loading.
-     */
-    private void createAndPlacePiece(String color, String pieceType, Position pos) {
-        Piece piece = null;
-        switch (pieceType) {
-            case "King": piece = new pieces.King(color, pos); break;
-            case "Queen": piece = new pieces.Queen(color, pos); break;
-            case "Rook": piece = new pieces.Rook(color, pos); break;
-            case "Bishop": piece = new pieces.Bishop(color, pos); break;
-            case "Knight": piece = new pieces.Knight(color, pos); break;
-            case "Pawn": piece = new pieces.Pawn(color, pos); break;
-        }
-        if (piece != null) {
-            board.placePiece(piece, pos);
-        }
-    }
 
     /**
      * Updates the status label with current game state.
@@ -609,6 +892,9 @@ public class ChessGUI extends JFrame {
         } else {
             statusLabel.setForeground(Color.BLACK);
         }
+        if (currentPlayer.equals(computerColor)) {
+            status += " - computer is thinking";
+        }
         statusLabel.setText(status);
     }
 
@@ -618,12 +904,11 @@ public class ChessGUI extends JFrame {
     private void updateCapturedPieces() {
         whiteCapturedPanel.removeAll();
         blackCapturedPanel.removeAll();
-        for (String move : moveHistory) {
-            if (move.contains("captures")) {
-                String[] parts = move.split("captures");
-                String pieceInfo = parts[1].trim();
-                pieceInfo = pieceInfo.substring(0, pieceInfo.length() - 1); // Remove trailing parenthesis
-                addCapturedPieceToPanel(pieceInfo);
+        for (int i = 0; i < moveHistory.size(); i++) {
+            int captured = moveHistory.getCapturedType(i);
+            if (captured >= 0) {
+                String color = MoveHistory.mover(i).equals(WHITE) ? BLACK : WHITE;
+                addCapturedPieceToPanel(MoveHistory.typeName(captured), color);
             }
         }
         capturedPiecesPanel.revalidate();
@@ -641,69 +926,60 @@ public class ChessGUI extends JFrame {
             JOptionPane.WARNING_MESSAGE
         );
     }
+/**
+ * Shows the current board after the game switched to a different Board
+ * object (new game, undo, load). Listeners move to the new board and only
+ * squares whose piece differs are repainted. Moves made on the same board
+ * reach the view through change events instead.
+ */
 private void updateBoardDisplay() {
-    for (int row = 0; row < BOARD_SIZE; row++) {
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            Position pos = new Position(row, col);
-            Piece piece = board.getPiece(pos);
-            JLabel square = squareLabels[row][col];
-            
-            // Update square color
-            setSquareColor(square, row, col);
-            
-            // Update piece image
-            if (piece != null) {
-                String pieceKey = piece.getColor() + "_" + 
-                                piece.getClass().getSimpleName().toLowerCase();
-                square.setIcon(pieceImages.get(pieceKey));
-            } else {
-                square.setIcon(null);
-            }
-        }
+    if (displayedBoard != null) {
+        displayedBoard.removeBoardListener(boardView);
+        displayedBoard.removeBoardListener(boardEvents);
     }
+    displayedBoard = board;
+    board.addBoardListener(boardView);
+    board.addBoardListener(boardEvents);
+    boardView.setBoard(board);
+    updateCheckHighlight();
 }
 
-private void setSquareColor(JLabel square, int row, int col) {
-    square.setBackground((row + col) % 2 == 0 ? lightSquareColor : darkSquareColor);
+/**
+ * Tints the square of any king that is in check.
+ */
+private void updateCheckHighlight() {
+    long kings = 0L;
+    for (String color : new String[] {WHITE, BLACK}) {
+        if (board.isInCheck(color)) {
+            kings |= board.getBitboard(Board.KING, color);
+        }
+    }
+    boardView.setCheckSquares(kings);
 }
 
 private void newGame() {
+    computer.cancel();
     board = new Board();
     currentPlayer = "white";
+    gameOver = false;
     selectedPosition = null;
     moveHistory.clear();
-    moveHistoryModel.clear();
+    moveHistoryModel.historyChanged();
     whiteCapturedPanel.removeAll();
     blackCapturedPanel.removeAll();
     isInCheck = false;
     updateBoardDisplay();
     updateStatusLabel();
+    resetClock();
+    positionChanged();
 }
 
 private void highlightSquare(Position pos) {
-    squareLabels[pos.getRow()][pos.getColumn()].setBorder(
-        BorderFactory.createLineBorder(Color.YELLOW, 2)
-    );
-}
-
-private void highlightCaptureSquare(Position pos) {
-    squareLabels[pos.getRow()][pos.getColumn()].setBorder(
-        BorderFactory.createLineBorder(Color.RED, 2)
-    );
-}
-
-private void highlightLegalSquare(Position pos) {
-    squareLabels[pos.getRow()][pos.getColumn()].setBorder(
-        BorderFactory.createLineBorder(Color.GREEN, 2)
-    );
+    boardView.setSelected(pos);
 }
 
 private void clearHighlights() {
-    for (int row = 0; row < BOARD_SIZE; row++) {
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            squareLabels[row][col].setBorder(null);
-        }
-    }
+    boardView.clearHighlights();
 }
 
 private void addCapturedPiece(Piece piece) {
@@ -725,11 +1001,7 @@ private void addCapturedPiece(Piece piece) {
     }
 }
 
-private void addCapturedPieceToPanel(String pieceInfo) {
-    String[] parts = pieceInfo.split(" ");
-    String pieceType = parts[0];
-    String color = parts[1];
-    
+private void addCapturedPieceToPanel(String pieceType, String color) {
     String pieceKey = color + "_" + pieceType.toLowerCase();
     ImageIcon icon = pieceImages.get(pieceKey);
     
@@ -0,0 +1,136 @@
+package gui;
+
+import board.Board;
+import engine.AnalysisCache;
+import engine.Search;
+import engine.SearchLimits;
+import match.PonderingPlayer;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays one side against the user. Moves are chosen on a background
+ * thread from a copy of the board and handed back on the event dispatch
+ * thread. Each request carries its own search limits, so a chess clock
+ * can pass its latest readings to the time manager.
+ *
+ * With pondering on, the engine keeps searching the position it expects
+ * after the user's reply while the user thinks. If the user plays that
+ * reply the engine answers with the benefit of the extra search time;
+ * otherwise the background search is abandoned at once.
+ *
+ * Analysis is kept in the on-disk {@link AnalysisCache}, so positions
+ * met in earlier sessions are answered from a warm start. The cache is
+ * opened when the computer first takes a side, so sessions between two
+ * people neither create the file nor age its entries.
+ *
+ * All engine calls run on one thread, so the player never sees two
+ * requests at a time. A request that the position has moved past is
+ * dropped before or after it runs.
+ *
+ * @author Abheek Pradhan
+ */
+class ComputerOpponent {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gui-computer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Search search = new Search();
+    // Only used on the event dispatch thread
+    private AnalysisCache cache;
+    private boolean cacheOpened;
+    // Only used on the executor thread
+    private final PonderingPlayer player;
+
+    // Incremented on every request or cancel; stale moves are dropped
+    private volatile int generation;
+    // Set while the executor thread is choosing a move
+    private volatile boolean thinking;
+
+    ComputerOpponent(boolean pondering) {
+        player = new PonderingPlayer(search, new SearchLimits(), "Computer");
+        setPondering(pondering);
+    }
+
+    /**
+     * Opens the analysis cache for the engine, unless that was done
+     * before. Must be called on the event dispatch thread.
+     */
+    public void openAnalysisCache() {
+        if (!cacheOpened) {
+            cacheOpened = true;
+            cache = AnalysisCache.openDefault();
+            search.setAnalysisCache(cache);
+        }
+    }
+
+    /**
+     * Returns the cache the engine reads and fills, or null if the
+     * computer has not played yet or the cache could not be opened.
+     */
+    public AnalysisCache getAnalysisCache() {
+        return cache;
+    }
+
+    /**
+     * Switches pondering on or off from the next move.
+     */
+    public void setPondering(boolean pondering) {
+        executor.execute(() -> {
+            player.setPondering(pondering);
+            if (!pondering) {
+                player.close();
+            }
+        });
+    }
+
+    /**
+     * Starts choosing a move for the given side. Must be called on the
+     * event dispatch thread.
+     *
+     * @param onMove Receives the move on the event dispatch thread, unless
+     *               another request or {@link #cancel()} came first
+     */
+    public void requestMove(Board board, String side, SearchLimits limits, IntConsumer onMove) {
+        int current = ++generation;
+        Board position = board.copyBoard();
+        executor.execute(() -> {
+            thinking = true;
+            if (generation != current) {
+                thinking = false;
+                return;  // Superseded before it started
+            }
+            player.setLimits(limits);
+            int move = player.chooseMove(position, side);
+            thinking = false;
+            SwingUtilities.invokeLater(() -> {
+                if (generation == current) {
+                    onMove.accept(move);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops any pending move, stops a search already choosing one and
+     * stops background pondering, for example when a game ends or the
+     * user takes a move back. Returns once the executor is free for the
+     * next request.
+     */
+    public void cancel() {
+        generation++;
+        // A stop that lands before the search starts is reset by it, so
+        // keep stopping until the move returns; a started search checks
+        // the flag at every node and returns well within a millisecond
+        while (thinking) {
+            search.stop();
+            Thread.onSpinWait();
+        }
+        executor.execute(player::close);
+    }
+}
@@ -0,0 +1,81 @@
+package gui;
+
+import analysis.OpeningExplorer;
+import board.Board;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Shows the moves played from the position on the board in a collection
+ * of games, with how those games ended, from an {@link OpeningExplorer}
+ * file. A lookup decodes a few hundred bytes of the mapped file, so the
+ * panel updates on the event dispatch thread as the game is played or
+ * taken back.
+ *
+ * @author Abheek Pradhan
+ */
+class ExplorerPanel extends JPanel {
+    private static final int LINES = 5;
+
+    private OpeningExplorer explorer;
+    private final JLabel summaryLabel = new JLabel("No explorer file");
+    private final JLabel[] lineLabels = new JLabel[LINES];
+
+    ExplorerPanel() {
+        super(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createTitledBorder("Opening Explorer"));
+
+        JPanel lines = new JPanel(new GridLayout(LINES, 1));
+        for (int i = 0; i < LINES; i++) {
+            lineLabels[i] = new JLabel(" ");
+            lineLabels[i].setFont(new Font("Monospaced", Font.PLAIN, 12));
+            lines.add(lineLabels[i]);
+        }
+        add(summaryLabel, BorderLayout.NORTH);
+        add(lines, BorderLayout.CENTER);
+
+        Path defaultPath = Paths.get(OpeningExplorer.DEFAULT_PATH);
+        if (Files.exists(defaultPath)) {
+            try {
+                explorer = OpeningExplorer.open(defaultPath);
+            } catch (IOException | IllegalArgumentException e) {
+                summaryLabel.setText("Cannot read " + defaultPath);
+            }
+        }
+    }
+
+    /**
+     * Switches to another explorer file.
+     *
+     * @throws IllegalArgumentException If the file is not an explorer file
+     */
+    public void open(Path path) throws IOException {
+        explorer = OpeningExplorer.open(path);
+    }
+
+    /**
+     * Shows the most played moves from the position. Must be called on
+     * the event dispatch thread.
+     */
+    public void positionChanged(Board board, String sideToMove) {
+        if (explorer == null) {
+            return;
+        }
+        List<OpeningExplorer.MoveStats> moves = explorer.lookup(board, sideToMove);
+        long games = 0;
+        for (OpeningExplorer.MoveStats stats : moves) {
+            games += stats.getGames();
+        }
+        summaryLabel.setText(moves.isEmpty() ? "Position not in the games"
+            : String.format("%,d of %,d games   white / draw / black", games, explorer.getGameCount()));
+        for (int i = 0; i < LINES; i++) {
+            lineLabels[i].setText(i < moves.size() ? moves.get(i).toString() : " ");
+        }
+    }
+}
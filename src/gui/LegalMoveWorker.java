@@ -0,0 +1,62 @@
+package gui;
+
+import board.Board;
+import board.Move;
+
+import javax.swing.SwingWorker;
+import java.util.function.Consumer;
+
+/**
+ * Computes every legal move for one side off the event dispatch thread.
+ * The result is one destination bit set per source square, so the GUI
+ * can highlight any piece's moves with a single array lookup.
+ * 
+ * The worker owns a private copy of the board; the caller's board may
+ * change while the search runs.
+ * 
+ * @author Abheek Pradhan
+ */
+class LegalMoveWorker extends SwingWorker<long[], Void> {
+    private final Board board;
+    private final String color;
+    private final long positionKey;
+    private final Consumer<LegalMoveWorker> onReady;
+
+    /**
+     * @param board A copy of the position that no other thread touches
+     * @param color The side whose moves are generated
+     * @param onReady Called on the event dispatch thread once the moves are known
+     */
+    LegalMoveWorker(Board board, String color, Consumer<LegalMoveWorker> onReady) {
+        this.board = board;
+        this.color = color;
+        this.positionKey = board.getPositionKey();
+        this.onReady = onReady;
+    }
+
+    @Override
+    protected long[] doInBackground() {
+        int[] moves = new int[256];
+        int count = board.generateMoves(color, moves);
+        long[] targets = new long[64];
+        for (int i = 0; i < count; i++) {
+            targets[Move.from(moves[i])] |= 1L << Move.to(moves[i]);
+        }
+        return targets;
+    }
+
+    @Override
+    protected void done() {
+        if (!isCancelled()) {
+            onReady.accept(this);
+        }
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public long getPositionKey() {
+        return positionKey;
+    }
+}
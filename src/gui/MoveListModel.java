@@ -0,0 +1,62 @@
+package gui;
+
+import game.MoveHistory;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * Shows a {@link MoveHistory} in a JList. Lines are built from the
+ * packed moves when the list asks for them, which with a prototype cell
+ * value is only for the rows on screen.
+ *
+ * @author Abheek Pradhan
+ */
+class MoveListModel extends AbstractListModel<String> {
+    private MoveHistory history;
+    private int shown;
+
+    MoveListModel(MoveHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public int getSize() {
+        return shown;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return history.describe(index);
+    }
+
+    /**
+     * Shows a different history, or the same one after it changed in
+     * ways other than moves added at the end.
+     */
+    public void setHistory(MoveHistory history) {
+        this.history = history;
+        int removed = shown;
+        shown = 0;
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        historyChanged();
+    }
+
+    /**
+     * Catches the list up with moves added to or removed from the end of
+     * the history.
+     */
+    public void historyChanged() {
+        int size = history.size();
+        if (size > shown) {
+            int first = shown;
+            shown = size;
+            fireIntervalAdded(this, first, size - 1);
+        } else if (size < shown) {
+            int last = shown - 1;
+            shown = size;
+            fireIntervalRemoved(this, size, last);
+        }
+    }
+}
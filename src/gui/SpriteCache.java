@@ -0,0 +1,140 @@
+package gui;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the piece sprites, decoded once and pre-scaled for every board size
+ * the settings dialog offers. Images are read from the classpath under
+ * /resources/pieces/. If they are not there, for example when running
+ * from compiled classes without copied resources, they are read from
+ * src/resources/pieces/ instead.
+ *
+ * Decoding and scaling happen on background threads, one image per
+ * task. The event dispatch thread only looks up finished icons.
+ *
+ * @author Abheek Pradhan
+ */
+final class SpriteCache {
+    /** Square sizes offered in the settings dialog. */
+    static final int[] SQUARE_SIZES = {40, 60, 80};
+
+    private static final String[] PIECES = {"pawn", "rook", "knight", "bishop", "queen", "king"};
+    private static final String[] COLORS = {"white", "black"};
+    private static final String RESOURCE_DIR = "/resources/pieces/";
+    private static final String FILE_DIR = "src/resources/pieces/";
+    private static final int PIECE_MARGIN = 10;
+
+    private final Map<String, BufferedImage> originals;
+    private final Map<Integer, Map<String, ImageIcon>> iconsBySize = new ConcurrentHashMap<>();
+
+    private SpriteCache(Map<String, BufferedImage> originals) {
+        this.originals = originals;
+    }
+
+    /**
+     * Decodes every sprite in parallel and scales it to each of
+     * {@link #SQUARE_SIZES}, off the calling thread.
+     *
+     * @return A future completed with the cache; missing images are
+     *         reported on standard error and left out
+     */
+    static CompletableFuture<SpriteCache> loadAsync() {
+        Map<String, BufferedImage> originals = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] decoders = new CompletableFuture<?>[COLORS.length * PIECES.length];
+        int i = 0;
+        for (String color : COLORS) {
+            for (String piece : PIECES) {
+                String key = color + "_" + piece;
+                decoders[i++] = CompletableFuture.runAsync(() -> {
+                    BufferedImage image = decode(key + ".png");
+                    if (image != null) {
+                        originals.put(key, image);
+                    }
+                });
+            }
+        }
+
+        return CompletableFuture.allOf(decoders).thenApply(ignored -> {
+            SpriteCache cache = new SpriteCache(originals);
+            CompletableFuture<?>[] scalers = new CompletableFuture<?>[SQUARE_SIZES.length];
+            for (int s = 0; s < SQUARE_SIZES.length; s++) {
+                int squareSize = SQUARE_SIZES[s];
+                scalers[s] = CompletableFuture.runAsync(() -> cache.icons(squareSize));
+            }
+            CompletableFuture.allOf(scalers).join();
+            return cache;
+        });
+    }
+
+    /**
+     * Returns the sprites sized for the given square size, keyed by
+     * "color_type" such as "white_knight". Sizes other than
+     * {@link #SQUARE_SIZES} are scaled on first use.
+     */
+    Map<String, ImageIcon> icons(int squareSize) {
+        return iconsBySize.computeIfAbsent(squareSize, size -> {
+            int spriteSize = Math.max(1, size - PIECE_MARGIN);
+            Map<String, ImageIcon> icons = new HashMap<>();
+            for (Map.Entry<String, BufferedImage> entry : originals.entrySet()) {
+                icons.put(entry.getKey(), new ImageIcon(scale(entry.getValue(), spriteSize)));
+            }
+            return Collections.unmodifiableMap(icons);
+        });
+    }
+
+    private static BufferedImage decode(String filename) {
+        try (InputStream in = SpriteCache.class.getResourceAsStream(RESOURCE_DIR + filename)) {
+            if (in != null) {
+                return ImageIO.read(in);
+            }
+            return ImageIO.read(new File(FILE_DIR + filename));
+        } catch (IOException e) {
+            System.err.println("Failed to load image: " + filename);
+            return null;
+        }
+    }
+
+    /**
+     * Scales an image into a display-compatible translucent image.
+     * Large reductions are done in halving steps with bilinear filtering,
+     * which looks close to area averaging at a fraction of the cost.
+     */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(size, width / 2);
+            height = Math.max(size, height / 2);
+            BufferedImage step = createImage(width, height);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != size || height != size);
+        return current;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -1,12 +1,34 @@
 package main;
 
 import gui.ChessGUI;
+import game.ChessClock;
 import game.Game;
+import analysis.BatchAnalyzer;
+import analysis.Bench;
+import analysis.GameIndex;
+import analysis.OpeningAggregator;
+import analysis.OpeningExplorer;
+import analysis.PuzzleVerifier;
+import analysis.TexelTuner;
+import board.Board;
+import board.Fen;
+import engine.AnalysisCache;
+import engine.UciProtocol;
+import match.MatchRunner;
+import match.Sprt;
+import profiling.MetricsServer;
+import server.GameServer;
+import server.LoadGenerator;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 import javax.swing.SwingUtilities;
 
 /**
  * Main class that serves as the entry point for the Chess application.
- * Supports both GUI and console-based gameplay modes.
+ * Supports GUI and console-based gameplay modes, a headless UCI
+ * engine mode for chess GUIs and tournament managers, and a multi-game
+ * server with a matching load generator.
  * 
  * @author Abheek Pradhan
  */
@@ -14,12 +36,38 @@ public class Main {
     /**
      * Main method that initializes the chess game based on command line arguments.
      * If no arguments are provided or "gui" is specified, launches in GUI mode.
-     * If "console" is specified, launches in console mode.
+     * If "console" is specified, launches in console mode;
+     * "console [time control] [white|black]" adds a clock such as "3+2"
+     * and lets the computer play the given side.
+     * If "uci" is specified, speaks the UCI protocol over stdin/stdout.
+     * "server [port]" hosts games over TCP and
+     * "loadgen [port] [clients] [games per client] [seconds]" measures it.
+     * "match &lt;tested&gt; &lt;baseline&gt; [games] [threads] [openings file]" runs an
+     * SPRT-stopped match between two players such as "depth:3" and "random".
+     * "batch &lt;input.epd&gt; &lt;output.epd&gt; [depth] [threads]" scores a position file.
+     * The console, GUI and batch modes keep analysis in an on-disk cache,
+     * "analysis.cache" unless -Dchess.cache=&lt;file&gt; names another.
+     * "puzzles &lt;input.epd&gt; &lt;output.epd&gt; [mate in] [threads]" proves or
+     * refutes the "dm" mate of every puzzle in a file.
+     * "tune &lt;positions&gt; &lt;weights out&gt; [epochs] [threads]" fits the evaluation
+     * to positions labelled with game results; run with
+     * -Dchess.weights=&lt;weights&gt; to use the result.
+     * "index [saved games dir] [index file]" brings the position index of the
+     * saved games up to date, and "find &lt;fen&gt; [index file]" lists the games
+     * that reached a position and the move played next.
+     * "openings &lt;games&gt; [explorer file] [plies] [threads]" counts the moves and
+     * results of a file of games for the GUI's opening explorer, and
+     * "explore &lt;fen&gt; [explorer file]" prints them for one position.
+     * "bench [search depth] [perft depth] [saved games dir]" prints a node
+     * signature and speed for a fixed workload.
+     * In any mode, -Dchess.metrics.port=N serves Prometheus metrics on port N.
      * 
      * @param args Command line arguments to determine game mode
      * @author Abheek Pradhan
      */
     public static void main(String[] args) {
+        MetricsServer metrics = startMetrics();
+
         // Check if GUI mode is explicitly requested or no arguments provided
         if (args.length == 0 || (args.length > 0 && args[0].equalsIgnoreCase("gui"))) {
             // Launch GUI mode
@@ -29,14 +77,231 @@ public class Main {
             });
         } else if (args.length > 0 && args[0].equalsIgnoreCase("console")) {
             // Launch console mode
-            Game consoleGame = new Game();
+            ChessClock clock = null;
+            String computerColor = null;
+            try {
+                for (int i = 1; i < args.length; i++) {
+                    if (args[i].equalsIgnoreCase("white") || args[i].equalsIgnoreCase("black")) {
+                        computerColor = args[i].toLowerCase();
+                    } else {
+                        clock = ChessClock.parse(args[i]);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+            Game consoleGame = new Game(clock, computerColor);
             consoleGame.start();
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("uci")) {
+            // Launch headless engine mode
+            try {
+                new UciProtocol(System.in, System.out).run();
+            } catch (IOException e) {
+                System.err.println("UCI input failed: " + e.getMessage());
+            }
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("server")) {
+            int[] numbers = numbers(args, 1, "server [port]", GameServer.DEFAULT_PORT);
+            if (numbers == null) {
+                return;
+            }
+            int port = numbers[0];
+            try {
+                GameServer server = new GameServer(port, 100_000, 20_000, 10 * 60 * 1000L);
+                if (metrics != null) {
+                    metrics.addGauge("chess_active_games", "Games currently held by the server",
+                                     () -> server.getRegistry().size());
+                }
+                server.serve();
+            } catch (IOException e) {
+                System.err.println("Server failed: " + e.getMessage());
+            }
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("loadgen")) {
+            int[] numbers = numbers(args, 1, "loadgen [port] [clients] [games per client] [seconds]",
+                                    GameServer.DEFAULT_PORT, 100, 100, 30);
+            if (numbers == null) {
+                return;
+            }
+            int port = numbers[0];
+            int clients = numbers[1];
+            int games = numbers[2];
+            int seconds = numbers[3];
+            try {
+                new LoadGenerator("localhost", port, clients, games, seconds * 1000L).run();
+            } catch (Exception e) {
+                System.err.println("Load generator failed: " + e.getMessage());
+            }
+        } else if (args.length > 2 && args[0].equalsIgnoreCase("match")) {
+            int[] numbers = numbers(args, 3, "match <tested> <baseline> [games] [threads] [openings file]",
+                                    10_000, Runtime.getRuntime().availableProcessors());
+            if (numbers == null) {
+                return;
+            }
+            int games = numbers[0];
+            int threads = numbers[1];
+            try {
+                MatchRunner runner = new MatchRunner(
+                    MatchRunner.parsePlayer(args[1]),
+                    MatchRunner.parsePlayer(args[2]),
+                    MatchRunner.loadOpenings(args.length > 5 ? args[5] : null),
+                    new Sprt(0, 10, 0.05, 0.05),
+                    threads);
+                runner.run(games);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Match failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (args.length > 2 && args[0].equalsIgnoreCase("batch")) {
+            int[] numbers = numbers(args, 3, "batch <input.epd> <output.epd> [depth] [threads]",
+                                    3, Runtime.getRuntime().availableProcessors());
+            if (numbers == null) {
+                return;
+            }
+            int depth = numbers[0];
+            int threads = numbers[1];
+            AnalysisCache cache = AnalysisCache.openDefault();
+            try {
+                long positions = new BatchAnalyzer(depth, threads, cache).run(args[1], args[2]);
+                System.out.println("Analysed " + positions + " positions into " + args[2]);
+            } catch (IOException e) {
+                System.err.println("Batch analysis failed: " + e.getMessage());
+            }
+            if (cache != null) {
+                System.out.println(cache.report());
+                cache.close();
+            }
+        } else if (args.length > 2 && args[0].equalsIgnoreCase("puzzles")) {
+            int[] numbers = numbers(args, 3, "puzzles <input.epd> <output.epd> [mate in] [threads]",
+                                    2, Runtime.getRuntime().availableProcessors());
+            if (numbers == null) {
+                return;
+            }
+            int mateIn = numbers[0];
+            int threads = numbers[1];
+            try {
+                long puzzles = new PuzzleVerifier(mateIn, threads).run(args[1], args[2]);
+                System.out.println("Verified " + puzzles + " puzzles into " + args[2]);
+            } catch (IOException e) {
+                System.err.println("Puzzle verification failed: " + e.getMessage());
+            }
+        } else if (args.length > 2 && args[0].equalsIgnoreCase("tune")) {
+            int[] numbers = numbers(args, 3, "tune <positions> <weights out> [epochs] [threads]",
+                                    200, Runtime.getRuntime().availableProcessors());
+            if (numbers == null) {
+                return;
+            }
+            int epochs = numbers[0];
+            int threads = numbers[1];
+            try {
+                new TexelTuner(threads).run(args[1], args[2], epochs);
+                System.out.println("Wrote tuned weights to " + args[2]);
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Tuning failed: " + e.getMessage());
+            }
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("index")) {
+            String games = args.length > 1 ? args[1] : Bench.DEFAULT_GAMES_DIR;
+            String index = args.length > 2 ? args[2] : GameIndex.DEFAULT_PATH;
+            try {
+                GameIndex.update(Paths.get(games), Paths.get(index), System.out);
+            } catch (IOException e) {
+                System.err.println("Indexing failed: " + e.getMessage());
+            }
+        } else if (args.length > 1 && args[0].equalsIgnoreCase("find")) {
+            String index = args.length > 2 ? args[2] : GameIndex.DEFAULT_PATH;
+            try {
+                Board board = Board.empty();
+                String side = Fen.load(board, args[1]);
+                GameIndex games = GameIndex.open(Paths.get(index));
+                long start = System.nanoTime();
+                List<GameIndex.Occurrence> found = games.find(board, side);
+                long micros = (System.nanoTime() - start) / 1000;
+                for (GameIndex.Occurrence occurrence : found) {
+                    System.out.println(occurrence);
+                }
+                System.out.printf("%d occurrences among %d positions of %d games (%d us)%n",
+                    found.size(), games.getPositionCount(), games.getGameCount(), micros);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Search failed: " + e.getMessage());
+            }
+        } else if (args.length > 1 && args[0].equalsIgnoreCase("openings")) {
+            String output = args.length > 2 ? args[2] : OpeningExplorer.DEFAULT_PATH;
+            int[] numbers = numbers(args, 3, "openings <games> [explorer file] [plies] [threads]",
+                                    OpeningAggregator.DEFAULT_MAX_PLIES, Runtime.getRuntime().availableProcessors());
+            if (numbers == null) {
+                return;
+            }
+            int plies = numbers[0];
+            int threads = numbers[1];
+            try {
+                long games = new OpeningAggregator(plies, threads).run(args[1], output);
+                System.out.println("Counted " + games + " games into " + output);
+            } catch (IOException e) {
+                System.err.println("Counting openings failed: " + e.getMessage());
+            }
+        } else if (args.length > 1 && args[0].equalsIgnoreCase("explore")) {
+            String file = args.length > 2 ? args[2] : OpeningExplorer.DEFAULT_PATH;
+            try {
+                Board board = Board.empty();
+                String side = Fen.load(board, args[1]);
+                OpeningExplorer explorer = OpeningExplorer.open(Paths.get(file));
+                for (OpeningExplorer.MoveStats stats : explorer.lookup(board, side)) {
+                    System.out.println(stats);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Explorer lookup failed: " + e.getMessage());
+            }
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("bench")) {
+            int[] numbers = numbers(args, 1, "bench [search depth] [perft depth] [saved games dir]",
+                                    Bench.DEFAULT_SEARCH_DEPTH, Bench.DEFAULT_PERFT_DEPTH);
+            if (numbers == null) {
+                return;
+            }
+            int depth = numbers[0];
+            int perftDepth = numbers[1];
+            String games = args.length > 3 ? args[3] : Bench.DEFAULT_GAMES_DIR;
+            new Bench(depth, perftDepth, games, System.out).run();
         } else {
             // Default to console mode if unknown argument
-            System.out.println("Usage: java Main [gui|console]");
+            System.out.println("Usage: java Main [gui|console|uci|server|loadgen|match|batch|puzzles|tune|index|find|openings|explore|bench]");
             System.out.println("Defaulting to console mode.");
             Game consoleGame = new Game();
             consoleGame.start();
         }
     }
+
+    /**
+     * Parses the numeric arguments of a mode, which start at the given
+     * index, using a default for each one left out. Reports the mode's
+     * usage and returns null if one is not a number.
+     */
+    private static int[] numbers(String[] args, int first, String usage, int... defaults) {
+        int[] numbers = defaults.clone();
+        for (int i = 0; i < numbers.length && first + i < args.length; i++) {
+            try {
+                numbers[i] = Integer.parseInt(args[first + i]);
+            } catch (NumberFormatException e) {
+                System.err.println("Not a number: " + args[first + i]);
+                System.err.println("Usage: java Main " + usage);
+                return null;
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Starts the metrics endpoint if a port was configured.
+     */
+    private static MetricsServer startMetrics() {
+        try {
+            MetricsServer metrics = MetricsServer.startFromProperty();
+            if (metrics != null) {
+                System.err.println("Metrics on http://localhost:" + metrics.getPort() + "/metrics");
+            }
+            return metrics;
+        } catch (IOException e) {
+            System.err.println("Metrics server failed: " + e.getMessage());
+            return null;
+        }
+    }
 }
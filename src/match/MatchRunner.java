@@ -0,0 +1,251 @@
+package match;
+
+import board.Board;
+import board.Fen;
+import board.GameStatus;
+import engine.Search;
+import engine.SearchLimits;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Plays two players against each other for many games in parallel and
+ * feeds every result into an {@link Sprt}, stopping as soon as the test
+ * is decided. Each opening is played twice with colors reversed so
+ * neither player profits from a lopsided start.
+ *
+ * Two deterministic players given the same opening play the same game,
+ * and the SPRT would count each repeat as fresh evidence. When there
+ * are more games than twice the openings, every pair of games therefore
+ * starts with {@value #RANDOM_PLIES} random moves after its opening,
+ * drawn from a generator seeded with the pair's number so both colors
+ * get the same line.
+ * 
+ * @author Abheek Pradhan
+ */
+public class MatchRunner {
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+    private static final int MAX_PLIES = 300;
+    private static final int RANDOM_PLIES = 4;
+
+    private static final String[] DEFAULT_OPENINGS = {
+        Fen.START_POSITION,
+        "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+        "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+        "rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w - - 0 2",
+        "rnbqkb1r/pppppppp/5n2/8/3P4/8/PPP1PPPP/RNBQKBNR w - - 1 2",
+        "rnbqkbnr/pppp1ppp/4p3/8/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+        "rnbqkbnr/pp1ppppp/2p5/8/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+        "rnbqkbnr/pppppppp/8/8/2P5/8/PP1PPPPP/RNBQKBNR b - - 0 1",
+    };
+
+    private final Supplier<Player> testedPlayer;
+    private final Supplier<Player> baselinePlayer;
+    private final List<String> openings;
+    private final Sprt sprt;
+    private final int threads;
+    private final AtomicBoolean decided = new AtomicBoolean();
+
+    public MatchRunner(Supplier<Player> testedPlayer, Supplier<Player> baselinePlayer,
+                       List<String> openings, Sprt sprt, int threads) {
+        this.testedPlayer = testedPlayer;
+        this.baselinePlayer = baselinePlayer;
+        this.openings = openings;
+        this.sprt = sprt;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays up to the given number of games, or fewer if the SPRT decides
+     * first, printing progress as results arrive.
+     */
+    public void run(int maxGames) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        int randomPlies = 0;
+        if (maxGames > 2 * openings.size()) {
+            randomPlies = RANDOM_PLIES;
+            System.out.printf("WARNING: %d games but only %d openings; each pair of games starts with"
+                + " %d random moves so games are not repeated. Pass an openings file with at least"
+                + " %d positions to play the openings as given.%n",
+                maxGames, openings.size(), randomPlies, (maxGames + 1) / 2);
+        }
+        for (int game = 0; game < maxGames; game++) {
+            String opening = openings.get((game / 2) % openings.size());
+            boolean testedIsWhite = game % 2 == 0;
+            int plies = randomPlies;
+            long seed = game / 2;
+            pool.execute(() -> {
+                if (decided.get()) {
+                    return;
+                }
+                Player tested = testedPlayer.get();
+                Player baseline = baselinePlayer.get();
+                double score = testedIsWhite
+                    ? play(tested, baseline, opening, plies, seed)
+                    : 1 - play(baseline, tested, opening, plies, seed);
+                tested.close();
+                baseline.close();
+                record(score);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int decision = sprt.decision();
+        System.out.printf("Finished %d games in %.1f s: %s%n", sprt.getGames(), seconds, sprt);
+        System.out.println(decision > 0 ? "H1 accepted: the tested player is stronger"
+            : decision < 0 ? "H0 accepted: no improvement shown"
+            : "Inconclusive: game limit reached before the test was decided");
+    }
+
+    private void record(double score) {
+        if (decided.get()) {
+            return;
+        }
+        sprt.add(score);
+        int games = sprt.getGames();
+        if (games % 20 == 0) {
+            System.out.println("Games " + games + ": " + sprt);
+        }
+        if (sprt.decision() != 0) {
+            decided.set(true);
+        }
+    }
+
+    /**
+     * Plays one game and returns white's score.
+     *
+     * @param randomPlies How many random moves to play after the opening
+     * @param seed Seeds the random moves; the same seed gives the same line
+     */
+    static double play(Player white, Player black, String opening, int randomPlies, long seed) {
+        Board board = Board.empty();
+        String side = Fen.load(board, opening);
+        Map<Long, Integer> seen = new HashMap<>();
+        int[] legal = new int[256];
+
+        Random random = new Random(seed);
+        for (int ply = 0; ply < randomPlies; ply++) {
+            int count = board.generateMoves(side, legal);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(legal[random.nextInt(count)]);
+            side = side.equals(WHITE) ? BLACK : WHITE;
+        }
+
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            GameStatus status = board.gameStatus(side);
+            if (status == GameStatus.CHECKMATE) {
+                return side.equals(WHITE) ? 0 : 1;
+            }
+            if (status.isGameOver()) {
+                return 0.5;
+            }
+            long key = board.getPositionKey() ^ (side.equals(WHITE) ? 0 : 1);
+            if (seen.merge(key, 1, Integer::sum) >= 3) {
+                return 0.5;
+            }
+
+            Player player = side.equals(WHITE) ? white : black;
+            int move = player.chooseMove(board, side);
+            if (!isLegal(board, side, move, legal)) {
+                // An illegal move forfeits the game
+                return side.equals(WHITE) ? 0 : 1;
+            }
+            board.makeMove(move);
+            side = side.equals(WHITE) ? BLACK : WHITE;
+        }
+        return 0.5;
+    }
+
+    private static boolean isLegal(Board board, String side, int move, int[] legal) {
+        int count = board.generateMoves(side, legal);
+        for (int i = 0; i < count; i++) {
+            if (legal[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads one FEN or EPD position per line, skipping blanks and
+     * '#' comments. Falls back to a built-in set when no file is given.
+     */
+    public static List<String> loadOpenings(String path) throws IOException {
+        List<String> openings = new ArrayList<>();
+        if (path == null) {
+            openings.addAll(List.of(DEFAULT_OPENINGS));
+            return openings;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    openings.add(line);
+                }
+            }
+        }
+        if (openings.isEmpty()) {
+            throw new IOException("No positions in " + path);
+        }
+        return openings;
+    }
+
+    /**
+     * Builds a player factory from a spec: "random", "depth:N",
+     * "nodes:N" or "movetime:MS". Adding ":ponder" to a search spec,
+     * as in "movetime:100:ponder", makes the player think on the
+     * opponent's time.
+     *
+     * Search players on the same pool thread share one search, whose
+     * table is cleared for every game, rather than each allocating a
+     * table of its own.
+     */
+    public static Supplier<Player> parsePlayer(String spec) {
+        String[] parts = spec.split(":");
+        if (parts[0].equalsIgnoreCase("random")) {
+            return () -> new RandomPlayer(System.nanoTime());
+        }
+        boolean ponder = parts.length == 3 && parts[2].equalsIgnoreCase("ponder");
+        if (parts.length != 2 && !ponder) {
+            throw new IllegalArgumentException("Player spec must be random, depth:N, nodes:N or movetime:MS,"
+                + " optionally followed by :ponder");
+        }
+        String type = parts[0].toLowerCase();
+        if (!type.equals("depth") && !type.equals("nodes") && !type.equals("movetime")) {
+            throw new IllegalArgumentException("Unknown player spec: " + spec);
+        }
+        long value = Long.parseLong(parts[1]);
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+        return () -> {
+            Search search = searches.get();
+            search.getTranspositionTable().clear();
+            SearchLimits limits = new SearchLimits();
+            if (type.equals("depth")) {
+                limits.setDepth((int) value);
+            } else if (type.equals("nodes")) {
+                limits.setNodes(value);
+            } else {
+                limits.setMoveTimeMillis(value);
+            }
+            return ponder ? new PonderingPlayer(search, limits, spec) : new SearchPlayer(search, limits, spec);
+        };
+    }
+}
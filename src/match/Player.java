@@ -0,0 +1,32 @@
+package match;
+
+import board.Board;
+
+/**
+ * A move-selection strategy that can take part in a match.
+ * Implementations need not be thread-safe; the runner gives every game
+ * its own players.
+ * 
+ * @author Abheek Pradhan
+ */
+public interface Player {
+    /**
+     * Chooses a legal move for the side to move. The board must be left
+     * exactly as it was passed in.
+     * 
+     * @return The move encoded with {@link board.Move}
+     */
+    int chooseMove(Board board, String sideToMove);
+
+    /**
+     * Returns a short description used in match reports.
+     */
+    String getName();
+
+    /**
+     * Releases anything the player keeps running between moves, such as
+     * a background search. Called once the game is over.
+     */
+    default void close() {
+    }
+}
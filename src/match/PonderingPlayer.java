@@ -0,0 +1,195 @@
+package match;
+
+import board.Board;
+import board.Move;
+import engine.Search;
+import engine.SearchLimits;
+import engine.SearchResult;
+
+/**
+ * Chooses moves with the engine's search and keeps thinking on the
+ * opponent's time. After each move it plays the reply the search expects,
+ * the second move of the principal variation, on a private board and
+ * searches that position in the background with no deadline.
+ *
+ * When the opponent does play the expected reply, the background search
+ * is a ponder hit: it becomes a normal search whose clock starts now, so
+ * everything it found while waiting is kept. Otherwise it is a miss and
+ * the background search is stopped; the stop flag is checked at every
+ * node, so it returns well within a millisecond and a fresh search starts.
+ *
+ * @author Abheek Pradhan
+ */
+public class PonderingPlayer implements Player {
+    private final Search search;
+    private final String name;
+    private SearchLimits limits;
+    private boolean ponderEnabled = true;
+
+    private Thread ponderThread;
+    private volatile SearchResult ponderResult;
+    private long searchesBeforePonder;
+    private long ponderKey;
+    private String ponderSide;
+    private int ponderHits;
+    private int ponderMisses;
+
+    public PonderingPlayer(SearchLimits limits, String name) {
+        this(new Search(), limits, name);
+    }
+
+    public PonderingPlayer(Search search, SearchLimits limits, String name) {
+        this.search = search;
+        this.limits = limits;
+        this.name = name;
+    }
+
+    /**
+     * Changes the limits from the next move on, for example to pass the
+     * latest clock readings. A ponder hit budgets its time from these too.
+     */
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Switches thinking on the opponent's time on or off from the next move.
+     */
+    public void setPondering(boolean ponderEnabled) {
+        this.ponderEnabled = ponderEnabled;
+    }
+
+    @Override
+    public int chooseMove(Board board, String sideToMove) {
+        SearchResult result = null;
+        if (ponderThread != null) {
+            if (board.getPositionKey() == ponderKey && sideToMove.equals(ponderSide)) {
+                awaitPonderStart();
+                search.ponderHit(limits);
+                join(ponderThread);
+                result = ponderResult;
+                ponderHits++;
+            } else {
+                stopPondering();
+                ponderMisses++;
+            }
+            ponderThread = null;
+        }
+        if (result == null || result.getBestMove() == Move.NONE) {
+            result = search.search(board, sideToMove, limits, null);
+        }
+        if (ponderEnabled) {
+            startPondering(board, sideToMove, result);
+        }
+        return result.getBestMove();
+    }
+
+    /**
+     * Stops any background search. Call this when the game is over.
+     */
+    @Override
+    public void close() {
+        if (ponderThread != null) {
+            stopPondering();
+            ponderThread = null;
+        }
+    }
+
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    public int getPonderMisses() {
+        return ponderMisses;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Starts searching the position after our move and the expected
+     * reply, if the search produced one and it is legal.
+     */
+    private void startPondering(Board board, String sideToMove, SearchResult result) {
+        int move = result.getBestMove();
+        int reply = result.getPonderMove();
+        if (move == Move.NONE || reply == Move.NONE) {
+            return;
+        }
+        String opponent = sideToMove.equals("white") ? "black" : "white";
+        Board position = board.copyBoard();
+        position.makeMove(move);
+        if (!isLegal(position, opponent, reply)) {
+            return;
+        }
+        position.makeMove(reply);
+
+        ponderKey = position.getPositionKey();
+        ponderSide = sideToMove;
+        ponderResult = null;
+        SearchLimits ponderLimits = copyOf(limits);
+        ponderLimits.setPonder(true);
+        searchesBeforePonder = search.getSearchesStarted();
+        ponderThread = new Thread(
+            () -> ponderResult = search.search(position, sideToMove, ponderLimits, null),
+            "ponder-" + name);
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    private void stopPondering() {
+        awaitPonderStart();
+        search.stop();
+        join(ponderThread);
+    }
+
+    /**
+     * Waits until the ponder search has set its limits, since it would
+     * reset a stop or ponder hit that arrived before that.
+     */
+    private void awaitPonderStart() {
+        while (ponderThread.isAlive() && search.getSearchesStarted() == searchesBeforePonder) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isLegal(Board board, String side, int move) {
+        int[] legal = new int[256];
+        int count = board.generateMoves(side, legal);
+        for (int i = 0; i < count; i++) {
+            if (legal[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SearchLimits copyOf(SearchLimits limits) {
+        SearchLimits copy = new SearchLimits();
+        copy.setDepth(limits.getDepth());
+        copy.setNodes(limits.getNodes());
+        copy.setMoveTimeMillis(limits.getMoveTimeMillis());
+        if (limits.hasWhiteTime()) {
+            copy.setWhiteTimeMillis(limits.getWhiteTimeMillis());
+        }
+        if (limits.hasBlackTime()) {
+            copy.setBlackTimeMillis(limits.getBlackTimeMillis());
+        }
+        copy.setWhiteIncrementMillis(limits.getWhiteIncrementMillis());
+        copy.setBlackIncrementMillis(limits.getBlackIncrementMillis());
+        copy.setMovesToGo(limits.getMovesToGo());
+        copy.setInfinite(limits.isInfinite());
+        copy.setMultiPv(limits.getMultiPv());
+        return copy;
+    }
+}
@@ -0,0 +1,30 @@
+package match;
+
+import board.Board;
+import board.Move;
+import java.util.Random;
+
+/**
+ * Plays a uniformly random legal move. Useful as a baseline opponent.
+ * 
+ * @author Abheek Pradhan
+ */
+public class RandomPlayer implements Player {
+    private final Random random;
+    private final int[] moves = new int[256];
+
+    public RandomPlayer(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int chooseMove(Board board, String sideToMove) {
+        int count = board.generateMoves(sideToMove, moves);
+        return count == 0 ? Move.NONE : moves[random.nextInt(count)];
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+}
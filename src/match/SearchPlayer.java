@@ -0,0 +1,36 @@
+package match;
+
+import board.Board;
+import engine.Search;
+import engine.SearchLimits;
+
+/**
+ * Chooses moves with the engine's search under fixed limits.
+ * 
+ * @author Abheek Pradhan
+ */
+public class SearchPlayer implements Player {
+    private final Search search;
+    private final SearchLimits limits;
+    private final String name;
+
+    public SearchPlayer(SearchLimits limits, String name) {
+        this(new Search(), limits, name);
+    }
+
+    public SearchPlayer(Search search, SearchLimits limits, String name) {
+        this.search = search;
+        this.limits = limits;
+        this.name = name;
+    }
+
+    @Override
+    public int chooseMove(Board board, String sideToMove) {
+        return search.search(board, sideToMove, limits, null).getBestMove();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,102 @@
+package match;
+
+/**
+ * Sequential probability ratio test on match results, so a match stops
+ * as soon as the data favors one Elo hypothesis over the other.
+ * Uses the generalized SPRT approximation on the trinomial
+ * (win/draw/loss) score: H0 says the Elo difference is elo0, H1 says
+ * elo1, and the log-likelihood ratio is compared against bounds derived
+ * from the error rates alpha and beta.
+ * 
+ * @author Abheek Pradhan
+ */
+public class Sprt {
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Records one game result from the tested player's point of view:
+     * 1 for a win, 0.5 for a draw, 0 for a loss.
+     */
+    public synchronized void add(double score) {
+        if (score > 0.75) {
+            wins++;
+        } else if (score < 0.25) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Returns the log-likelihood ratio of H1 against H0.
+     */
+    public synchronized double llr() {
+        int n = wins + draws + losses;
+        if (n == 0 || wins + losses == 0) {
+            return 0;
+        }
+        double score = (wins + 0.5 * draws) / n;
+        double variance = (wins * Math.pow(1 - score, 2)
+            + draws * Math.pow(0.5 - score, 2)
+            + losses * Math.pow(score, 2)) / n;
+        if (variance <= 0) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return n * (s1 - s0) * (2 * score - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Returns +1 if H1 is accepted, -1 if H0 is accepted, 0 if undecided.
+     */
+    public synchronized int decision() {
+        double llr = llr();
+        if (llr >= upperBound) {
+            return 1;
+        }
+        if (llr <= lowerBound) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the Elo difference implied by the score so far.
+     */
+    public synchronized double eloEstimate() {
+        int n = wins + draws + losses;
+        if (n == 0) {
+            return 0;
+        }
+        double score = Math.min(Math.max((wins + 0.5 * draws) / n, 1e-3), 1 - 1e-3);
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("W %d D %d L %d, Elo %+.1f, LLR %.2f [%.2f, %.2f]",
+            wins, draws, losses, eloEstimate(), llr(), lowerBound, upperBound);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+}
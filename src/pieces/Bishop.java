@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 
 public class Bishop extends Piece {
@@ -11,15 +12,9 @@ public class Bishop extends Piece {
 
     @Override
     public boolean canMove(Board board, Position to) {
-        int rowDiff = Math.abs(to.getRow() - this.getPosition().getRow());
-        int colDiff = Math.abs(to.getColumn() - this.getPosition().getColumn());
-
-        // Bishop moves diagonally, rowDiff must equal colDiff
-        if (rowDiff == colDiff) {
-            return board.isPathClear(this.getPosition(), to);
-        }
-
-        return false;
+        // Bishop moves diagonally up to the first piece in each direction
+        long attacks = AttackTables.bishopAttacks(this.getPosition().toIndex(), board.getOccupancy());
+        return (attacks & AttackTables.bit(to.toIndex())) != 0;
     }
 
     @Override
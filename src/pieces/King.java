@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 
 public class King extends Piece {
@@ -11,9 +12,7 @@ public class King extends Piece {
 
     @Override
     public boolean canMove(Board board, Position to) {
-        int rowDiff = Math.abs(to.getRow() - this.getPosition().getRow());
-        int colDiff = Math.abs(to.getColumn() - this.getPosition().getColumn());
-        return rowDiff <= 1 && colDiff <= 1;
+        return (AttackTables.kingAttacks(this.getPosition().toIndex()) & AttackTables.bit(to.toIndex())) != 0;
     }
 
     @Override
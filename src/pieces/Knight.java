@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 
 public class Knight extends Piece {
@@ -11,11 +12,8 @@ public class Knight extends Piece {
 
     @Override
     public boolean canMove(Board board, Position to) {
-        int rowDiff = Math.abs(to.getRow() - this.getPosition().getRow());
-        int colDiff = Math.abs(to.getColumn() - this.getPosition().getColumn());
-
         // Knight moves in an "L" shape
-        return (rowDiff == 2 && colDiff == 1) || (rowDiff == 1 && colDiff == 2);
+        return (AttackTables.knightAttacks(this.getPosition().toIndex()) & AttackTables.bit(to.toIndex())) != 0;
     }
 
     @Override
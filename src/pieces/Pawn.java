@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,25 +20,24 @@ public class Pawn extends Piece {
             if (rowDiff == -1 && colDiff == 0 && board.getPiece(to) == null) {
                 return true;
             }
-            if (this.getPosition().getRow() == 6 && rowDiff == -2 && colDiff == 0 && board.getPiece(to) == null) {
-                return true;
-            }
-            if (rowDiff == -1 && colDiff == 1 && board.getPiece(to) != null && !board.getPiece(to).getColor().equals(this.getColor())) {
+            if (this.getPosition().getRow() == 6 && rowDiff == -2 && colDiff == 0 && board.getPiece(to) == null
+                    && board.isPathClear(this.getPosition(), to)) {
                 return true;
             }
         } else if (this.getColor().equals("black")) {
             if (rowDiff == 1 && colDiff == 0 && board.getPiece(to) == null) {
                 return true;
             }
-            if (this.getPosition().getRow() == 1 && rowDiff == 2 && colDiff == 0 && board.getPiece(to) == null) {
-                return true;
-            }
-            if (rowDiff == 1 && colDiff == 1 && board.getPiece(to) != null && !board.getPiece(to).getColor().equals(this.getColor())) {
+            if (this.getPosition().getRow() == 1 && rowDiff == 2 && colDiff == 0 && board.getPiece(to) == null
+                    && board.isPathClear(this.getPosition(), to)) {
                 return true;
             }
         }
 
-        return false;
+        // Diagonal captures come straight from the pawn attack table
+        Piece target = board.getPiece(to);
+        return target != null && !target.getColor().equals(this.getColor())
+            && (AttackTables.pawnAttacks(this.getColor(), this.getPosition().toIndex()) & AttackTables.bit(to.toIndex())) != 0;
     }
 
     public List<Position> possibleMoves(Board board) {
@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 
 public class Queen extends Piece {
@@ -11,15 +12,9 @@ public class Queen extends Piece {
 
     @Override
     public boolean canMove(Board board, Position to) {
-        int rowDiff = Math.abs(to.getRow() - this.getPosition().getRow());
-        int colDiff = Math.abs(to.getColumn() - this.getPosition().getColumn());
-
         // Queen moves like a Rook or Bishop (straight or diagonal)
-        if (rowDiff == colDiff || rowDiff == 0 || colDiff == 0) {
-            return board.isPathClear(this.getPosition(), to);
-        }
-
-        return false;
+        long attacks = AttackTables.queenAttacks(this.getPosition().toIndex(), board.getOccupancy());
+        return (attacks & AttackTables.bit(to.toIndex())) != 0;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package pieces;
 
 import utils.Position;
+import board.AttackTables;
 import board.Board;
 
 public class Rook extends Piece {
@@ -11,15 +12,9 @@ public class Rook extends Piece {
 
     @Override
     public boolean canMove(Board board, Position to) {
-        int rowDiff = Math.abs(to.getRow() - this.getPosition().getRow());
-        int colDiff = Math.abs(to.getColumn() - this.getPosition().getColumn());
-
         // Rook moves only in straight lines (either row or column changes, but not both)
-        if (rowDiff == 0 || colDiff == 0) {
-            return board.isPathClear(this.getPosition(), to);
-        }
-
-        return false;
+        long attacks = AttackTables.rookAttacks(this.getPosition().toIndex(), board.getOccupancy());
+        return (attacks & AttackTables.bit(to.toIndex())) != 0;
     }
 
     @Override
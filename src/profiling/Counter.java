@@ -0,0 +1,97 @@
+package profiling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide event counters for the move validation and search hot
+ * paths. Counting is off unless the JVM is started with
+ * {@code -Dchess.stats=true} or with a metrics port
+ * ({@code -Dchess.metrics.port=9400}). Because the switch is a static final
+ * constant, the JIT removes disabled increments entirely. Enabled
+ * counters are LongAdders, so search threads never contend on them.
+ * 
+ * @author Abheek Pradhan
+ */
+public enum Counter {
+    /** Nodes visited by finished searches. */
+    NODES,
+    /** Searches run. */
+    SEARCHES,
+    /** Wall time spent in searches, in nanoseconds. */
+    SEARCH_NANOS,
+    /** Completed main-thread iterations. */
+    ITERATIONS,
+    /** Sum of per-iteration branching factors, in thousandths. */
+    BRANCHING_MILLIS,
+    /** Iterations that contributed a branching factor sample. */
+    BRANCHING_SAMPLES,
+    /** Moves validated: Board.movePiece calls and moves sent to server games. */
+    MOVES_VALIDATED,
+    /** Board copies made. */
+    BOARD_COPIES,
+    /** Check tests actually computed (not answered from the cache). */
+    CHECK_TESTS,
+    /** Check, game status and legal-move queries answered from the per-position cache. */
+    CACHE_HITS,
+    /** The same queries that had to be computed. */
+    CACHE_MISSES,
+    /** Transposition table lookups. */
+    TABLE_PROBES,
+    /** Transposition table lookups that found the position. */
+    TABLE_HITS;
+
+    /** True when counting was switched on at startup. */
+    public static final boolean ENABLED = Boolean.getBoolean("chess.stats")
+        || System.getProperty(MetricsServer.PORT_PROPERTY) != null;
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        if (ENABLED) {
+            count.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (ENABLED) {
+            count.add(amount);
+        }
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public static void resetAll() {
+        for (Counter counter : values()) {
+            counter.count.reset();
+        }
+    }
+
+    /**
+     * Summarises the counters and the figures derived from them (nodes per
+     * second, average branching factor, hit rates) on one line.
+     */
+    public static String report() {
+        long nodes = NODES.get();
+        long nanos = SEARCH_NANOS.get();
+        long samples = BRANCHING_SAMPLES.get();
+        StringBuilder text = new StringBuilder();
+        for (Counter counter : values()) {
+            text.append(counter.name().toLowerCase()).append('=').append(counter.get()).append(' ');
+        }
+        text.append("nps=").append(nanos > 0 ? nodes * 1_000_000_000L / nanos : 0);
+        text.append(String.format(" branching=%.2f", samples > 0 ? BRANCHING_MILLIS.get() / 1000.0 / samples : 0.0));
+        text.append(String.format(" cache_hit_rate=%.3f", rate(CACHE_HITS.get(), CACHE_MISSES.get())));
+        text.append(String.format(" table_hit_rate=%.3f", rate(TABLE_HITS.get(), TABLE_PROBES.get() - TABLE_HITS.get())));
+        return text.toString();
+    }
+
+    private static double rate(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+}
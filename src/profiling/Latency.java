@@ -0,0 +1,77 @@
+package profiling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for board operations, kept in fixed power-of-two
+ * buckets from 256 ns to about 1 s. Percentiles are derived by the
+ * scraper (for example Prometheus' histogram_quantile). Recording adds to a LongAdder and
+ * takes no locks. Like {@link Counter}, nothing is recorded unless
+ * statistics are switched on at startup.
+ * 
+ * @author Abheek Pradhan
+ */
+public enum Latency {
+    MOVE_PIECE("chess_move_piece_seconds",
+        "Time to validate and play a move with Board.movePiece"),
+    GAME_STATUS("chess_game_status_seconds",
+        "Time for Board.gameStatus, which answers isCheckmate and stalemate checks");
+
+    // Bucket i holds samples below 2^(MIN_SHIFT + i) nanoseconds; the last is unbounded
+    private static final int MIN_SHIFT = 8;
+    private static final int BUCKETS = 24;
+
+    private final String metricName;
+    private final String help;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    Latency(String metricName, String help) {
+        this.metricName = metricName;
+        this.help = help;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns a start time for {@link #record}, or 0 when statistics are off.
+     */
+    public static long start() {
+        return Counter.ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the time elapsed since a {@link #start()} call.
+     */
+    public void record(long startNanos) {
+        if (Counter.ENABLED) {
+            long nanos = System.nanoTime() - startNanos;
+            int bucket = 64 - Long.numberOfLeadingZeros(nanos >>> MIN_SHIFT);
+            buckets[Math.min(bucket, BUCKETS - 1)].increment();
+            totalNanos.add(nanos);
+        }
+    }
+
+    /**
+     * Appends the histogram in Prometheus text exposition format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(metricName).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metricName).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            cumulative += buckets[i].sum();
+            out.append(metricName).append("_bucket{le=\"")
+               .append(upperBoundNanos(i) / 1e9).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BUCKETS - 1].sum();
+        out.append(metricName).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(metricName).append("_sum ").append(totalNanos.sum() / 1e9).append('\n');
+        out.append(metricName).append("_count ").append(cumulative).append('\n');
+    }
+
+    private static long upperBoundNanos(int bucket) {
+        return 1L << (MIN_SHIFT + bucket);
+    }
+}
@@ -0,0 +1,146 @@
+package profiling;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Serves {@link Counter}, {@link Latency} and registered gauges at
+ * {@code /metrics} in Prometheus text format, using the JDK's built-in
+ * HTTP server on a single background thread. Values are read when a
+ * scrape arrives; the hot paths only ever touch their LongAdders.
+ *
+ * The server listens on the loopback address unless another is named,
+ * so metrics are not exposed to the network by accident.
+ * 
+ * @author Abheek Pradhan
+ */
+public class MetricsServer {
+    /** System property naming the port; setting it also turns statistics on. */
+    public static final String PORT_PROPERTY = "chess.metrics.port";
+    /** System property naming the address to listen on, e.g. 0.0.0.0 for every interface. */
+    public static final String BIND_PROPERTY = "chess.metrics.bind";
+
+    private final HttpServer server;
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Listens on the loopback address.
+     */
+    public MetricsServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    public MetricsServer(InetAddress address, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/metrics", this::handle);
+        addGauge("chess_position_cache_hit_ratio",
+            "Share of check, status and legal-move queries answered from the per-position cache",
+            () -> ratio(Counter.CACHE_HITS.get(), Counter.CACHE_MISSES.get()));
+        addGauge("chess_transposition_hit_ratio",
+            "Share of transposition table probes that found the position",
+            () -> ratio(Counter.TABLE_HITS.get(), Counter.TABLE_PROBES.get() - Counter.TABLE_HITS.get()));
+    }
+
+    /**
+     * Starts a server on the port named by {@link #PORT_PROPERTY} and the
+     * address named by {@link #BIND_PROPERTY}, loopback if that is not
+     * set, or returns null if the port is not set.
+     */
+    public static MetricsServer startFromProperty() throws IOException {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+        String bind = System.getProperty(BIND_PROPERTY);
+        InetAddress address = bind != null ? InetAddress.getByName(bind) : InetAddress.getLoopbackAddress();
+        MetricsServer metrics = new MetricsServer(address, port);
+        metrics.start();
+        return metrics;
+    }
+
+    /**
+     * Starts serving. The server's dispatcher thread inherits daemon status
+     * from the thread that starts it, so it is started from a daemon thread
+     * and never keeps the JVM alive on its own.
+     */
+    public void start() {
+        Thread starter = new Thread(server::start, "metrics-start");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Publishes a value that is sampled at scrape time, such as the
+     * number of active games.
+     */
+    public void addGauge(String name, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    /**
+     * Renders every metric in Prometheus text exposition format.
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Counter counter : Counter.values()) {
+            String name = "chess_" + counter.name().toLowerCase() + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.get()).append('\n');
+        }
+        for (Latency latency : Latency.values()) {
+            latency.writePrometheus(out);
+        }
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            String name = entry.getKey();
+            out.append("# HELP ").append(name).append(' ').append(entry.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(entry.getValue().value.getAsDouble()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+
+    private static final class Gauge {
+        final String help;
+        final DoubleSupplier value;
+
+        Gauge(String help, DoubleSupplier value) {
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
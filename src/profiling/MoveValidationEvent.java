@@ -0,0 +1,36 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one {@code Board.movePiece} call, from
+ * validation through execution. Disabled unless a recording turns on
+ * {@code chess.MoveValidation}.
+ * 
+ * @author Abheek Pradhan
+ */
+@Name("chess.MoveValidation")
+@Label("Move Validation")
+@Category({"Chess", "Board"})
+@Description("Validates and plays one move on a board")
+@Enabled(false)
+@StackTrace(false)
+public class MoveValidationEvent extends Event {
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Piece")
+    public String piece;
+
+    @Label("Legal")
+    public boolean legal;
+}
@@ -0,0 +1,42 @@
+package profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one iterative deepening iteration of the
+ * main search thread. Disabled unless a recording turns on
+ * {@code chess.SearchIteration}.
+ * 
+ * @author Abheek Pradhan
+ */
+@Name("chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@Description("One depth of iterative deepening on the main search thread")
+@Enabled(false)
+@StackTrace(false)
+public class SearchIterationEvent extends Event {
+    @Label("Depth")
+    public int depth;
+
+    @Label("Score")
+    @Description("Centipawns from the side to move's point of view")
+    public int score;
+
+    @Label("Nodes")
+    @Description("Nodes searched by this thread during the iteration")
+    public long nodes;
+
+    @Label("Branching Factor")
+    @Description("Nodes in this iteration divided by nodes in the previous one")
+    public double branchingFactor;
+
+    @Label("Best Move")
+    public String bestMove;
+}
@@ -0,0 +1,207 @@
+package server;
+
+import board.GameStatus;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts many independent games over a plain-text line protocol on a
+ * local TCP socket. Each connection is served by its own thread: a
+ * virtual thread when the JDK provides them (21+), otherwise a pooled
+ * platform thread. A client can drive any number of sessions over one
+ * connection.
+ * 
+ * <pre>
+ * NEW                 -> OK &lt;id&gt;             start a game
+ * MOVE &lt;id&gt; &lt;e2e4&gt;    -> OK &lt;status&gt;         play a move for the side to move
+ * MOVES &lt;id&gt;          -> OK &lt;move&gt; ...       list legal moves
+ * STATE &lt;id&gt;          -> OK &lt;fen&gt; | &lt;status&gt; | &lt;moves&gt;
+ * END &lt;id&gt;            -> OK                  close a game
+ * PING                -> PONG
+ * QUIT                closes the connection
+ * </pre>
+ * 
+ * Errors are answered with "ERR &lt;reason&gt;". Back-pressure comes from
+ * three places: a cap on open connections (further clients wait in the
+ * accept backlog), a cap on live sessions ("ERR busy"), and strictly
+ * request/response handling, so a client that stops reading stalls
+ * only its own connection.
+ * 
+ * @author Abheek Pradhan
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 7878;
+
+    private final int port;
+    private final SessionRegistry registry;
+    private final Semaphore connectionSlots;
+    private final long idleTimeoutMillis;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "session-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ServerSocket serverSocket;
+
+    public GameServer(int port, int maxSessions, int maxConnections, long idleTimeoutMillis) {
+        this.port = port;
+        this.registry = new SessionRegistry(maxSessions);
+        this.connectionSlots = new Semaphore(maxConnections);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Accepts connections until {@link #close()} is called.
+     */
+    public void serve() throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        long period = Math.max(1000, idleTimeoutMillis / 4);
+        evictor.scheduleAtFixedRate(() -> {
+            int evicted = registry.evictIdle(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (evicted > 0) {
+                System.out.println("Evicted " + evicted + " idle sessions, " + registry.size() + " live");
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        System.out.println("Game server listening on " + serverSocket.getLocalSocketAddress());
+        try {
+            while (!serverSocket.isClosed()) {
+                connectionSlots.acquireUninterruptibly();
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    connectionSlots.release();
+                    if (serverSocket.isClosed()) {
+                        break;
+                    }
+                    throw e;
+                }
+                connections.execute(() -> {
+                    try {
+                        handle(socket);
+                    } finally {
+                        connectionSlots.release();
+                    }
+                });
+            }
+        } finally {
+            close();
+        }
+    }
+
+    public void close() {
+        evictor.shutdownNow();
+        connections.shutdownNow();
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Already closing; nothing else to release
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+            s.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].equalsIgnoreCase("QUIT")) {
+                    break;
+                }
+                out.write(respond(tokens));
+                out.write('\n');
+                // Only flush once the client has no more pipelined requests waiting
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client went away; its sessions stay until they idle out
+        }
+    }
+
+    /**
+     * Executes one protocol command and returns the response line.
+     */
+    String respond(String[] tokens) {
+        String command = tokens[0].toUpperCase();
+        if (command.equals("PING")) {
+            return "PONG";
+        }
+        if (command.equals("NEW")) {
+            GameSession session = registry.create();
+            return session == null ? "ERR busy" : "OK " + session.getId();
+        }
+
+        if (tokens.length < 2) {
+            return "ERR usage";
+        }
+        GameSession session;
+        try {
+            session = registry.get(Long.parseLong(tokens[1]));
+        } catch (NumberFormatException e) {
+            return "ERR bad id";
+        }
+        if (session == null) {
+            return "ERR no such game";
+        }
+
+        switch (command) {
+            case "MOVE":
+                if (tokens.length < 3) {
+                    return "ERR usage";
+                }
+                GameStatus status = session.play(tokens[2]);
+                return status == null ? "ERR illegal" : "OK " + status;
+            case "MOVES":
+                return "OK " + session.legalMoves();
+            case "STATE":
+                return "OK " + session.describe();
+            case "END":
+                registry.remove(session.getId());
+                return "OK";
+            default:
+                return "ERR unknown command";
+        }
+    }
+
+    /**
+     * Uses one virtual thread per task when running on a JDK that has
+     * them, and a cached pool of daemon platform threads otherwise.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "game-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package server;
+
+import board.Board;
+import board.Fen;
+import board.GameStatus;
+import board.Move;
+import profiling.Counter;
+
+/**
+ * One independent game hosted by the server: a board, the side to move
+ * and the moves played so far. All methods are synchronized on the
+ * session, so games never share locks with each other.
+ * 
+ * @author Abheek Pradhan
+ */
+public class GameSession {
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+
+    private final long id;
+    private final Board board = new Board();
+    private final int[] legalMoves = new int[256];
+    private String sideToMove = WHITE;
+    private GameStatus status = GameStatus.ONGOING;
+    private int moveCount;
+    private volatile long lastActiveNanos = System.nanoTime();
+
+    public GameSession(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getLastActiveNanos() {
+        return lastActiveNanos;
+    }
+
+    /**
+     * Plays a move given in UCI notation for the side to move.
+     * 
+     * @return The game status after the move, or null if the move is
+     *         malformed, illegal or the game is already over
+     */
+    public synchronized GameStatus play(String uciMove) {
+        touch();
+        Counter.MOVES_VALIDATED.increment();
+        if (status.isGameOver()) {
+            return null;
+        }
+        int move = Move.fromUci(uciMove);
+        int count = board.generateMoves(sideToMove, legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                board.makeMove(move);
+                sideToMove = sideToMove.equals(WHITE) ? BLACK : WHITE;
+                moveCount++;
+                status = board.gameStatus(sideToMove);
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the legal moves for the side to move in UCI notation,
+     * separated by spaces.
+     */
+    public synchronized String legalMoves() {
+        touch();
+        int count = board.generateMoves(sideToMove, legalMoves);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(Move.toUci(legalMoves[i]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Describes the session as "<fen> | <status> | <moves played>".
+     */
+    public synchronized String describe() {
+        touch();
+        return Fen.toFen(board, sideToMove) + " | " + status + " | " + moveCount;
+    }
+
+    private void touch() {
+        lastActiveNanos = System.nanoTime();
+    }
+}
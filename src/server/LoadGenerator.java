@@ -0,0 +1,159 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load-generating client for {@link GameServer}. Opens a number of
+ * connections, keeps a set of games open on each, and plays random
+ * legal moves round-robin across them for a fixed duration, then prints
+ * moves per second and request latency percentiles.
+ * 
+ * @author Abheek Pradhan
+ */
+public class LoadGenerator {
+    // Latency histogram buckets are powers of two in microseconds
+    private static final int BUCKETS = 32;
+
+    private final String host;
+    private final int port;
+    private final int clients;
+    private final int gamesPerClient;
+    private final long durationMillis;
+
+    public LoadGenerator(String host, int port, int clients, int gamesPerClient, long durationMillis) {
+        this.host = host;
+        this.port = port;
+        this.clients = clients;
+        this.gamesPerClient = gamesPerClient;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Runs the load and prints a summary to standard output.
+     */
+    public void run() throws Exception {
+        ExecutorService pool = GameServer.newConnectionExecutor();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long start = System.nanoTime();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long seed = i;
+            results.add(pool.submit(() -> playUntil(deadline, seed)));
+        }
+
+        long moves = 0;
+        long games = 0;
+        long[] latency = new long[BUCKETS];
+        for (Future<long[]> result : results) {
+            long[] client = result.get();
+            moves += client[0];
+            games += client[1];
+            for (int b = 0; b < BUCKETS; b++) {
+                latency[b] += client[2 + b];
+            }
+        }
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Clients: %d, live games: %d, finished games: %d%n",
+            clients, clients * gamesPerClient, games);
+        System.out.printf("Moves: %d in %.1f s = %.0f moves/s%n", moves, seconds, moves / seconds);
+        System.out.printf("Move latency p50 < %d us, p99 < %d us, max < %d us%n",
+            percentile(latency, 0.50), percentile(latency, 0.99), percentile(latency, 1.0));
+    }
+
+    /**
+     * Plays on one connection until the deadline.
+     * 
+     * @return moves played, games finished, then the latency histogram
+     */
+    private long[] playUntil(long deadline, long seed) throws IOException {
+        long[] stats = new long[2 + BUCKETS];
+        Random random = new Random(seed);
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII)) {
+            socket.setTcpNoDelay(true);
+            String[] games = new String[gamesPerClient];
+            for (int g = 0; g < gamesPerClient; g++) {
+                games[g] = newGame(in, out);
+            }
+
+            while (System.nanoTime() < deadline) {
+                for (int g = 0; g < gamesPerClient && System.nanoTime() < deadline; g++) {
+                    String[] legal = request(in, out, "MOVES " + games[g]).substring(2).trim().split(" ");
+                    String reply = legal[0].isEmpty() ? "OK STALEMATE" : null;
+                    if (reply == null) {
+                        long sent = System.nanoTime();
+                        reply = request(in, out, "MOVE " + games[g] + " " + legal[random.nextInt(legal.length)]);
+                        long micros = (System.nanoTime() - sent) / 1000;
+                        stats[2 + Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))]++;
+                        stats[0]++;
+                    }
+                    // Restart games that ended or dragged on past a sensible length
+                    if ((!reply.equals("OK ONGOING") && !reply.equals("OK CHECK"))
+                            || random.nextInt(200) == 0) {
+                        request(in, out, "END " + games[g]);
+                        games[g] = newGame(in, out);
+                        stats[1]++;
+                    }
+                }
+            }
+            for (String game : games) {
+                request(in, out, "END " + game);
+            }
+            out.println("QUIT");
+            out.flush();
+        }
+        return stats;
+    }
+
+    private static String newGame(BufferedReader in, PrintWriter out) throws IOException {
+        String reply = request(in, out, "NEW");
+        if (!reply.startsWith("OK ")) {
+            throw new IOException("Server refused new game: " + reply);
+        }
+        return reply.substring(3);
+    }
+
+    private static String request(BufferedReader in, PrintWriter out, String line) throws IOException {
+        out.println(line);
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return reply;
+    }
+
+    /**
+     * Returns the upper bound in microseconds of the bucket holding the
+     * given fraction of samples.
+     */
+    private static long percentile(long[] histogram, double fraction) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= target && histogram[b] > 0) {
+                return 1L << b;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,70 @@
+package server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent registry of live game sessions, bounded in size.
+ * Lookups never block; creation fails fast once the limit is reached
+ * so callers can push back on clients instead of running out of memory.
+ * 
+ * @author Abheek Pradhan
+ */
+public class SessionRegistry {
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSessions;
+
+    public SessionRegistry(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Creates a new session, or returns null if the registry is full.
+     */
+    public GameSession create() {
+        if (size.incrementAndGet() > maxSessions) {
+            size.decrementAndGet();
+            return null;
+        }
+        GameSession session = new GameSession(nextId.getAndIncrement());
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    public GameSession get(long id) {
+        return sessions.get(id);
+    }
+
+    public boolean remove(long id) {
+        if (sessions.remove(id) != null) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Removes every session that has not been used for the given time.
+     * 
+     * @return The number of sessions evicted
+     */
+    public int evictIdle(long idleTime, TimeUnit unit) {
+        long cutoff = System.nanoTime() - unit.toNanos(idleTime);
+        int evicted = 0;
+        for (GameSession session : sessions.values()) {
+            if (session.getLastActiveNanos() - cutoff < 0 && sessions.remove(session.getId(), session)) {
+                size.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+}
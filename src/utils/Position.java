@@ -28,6 +28,18 @@ public class Position {
         this.column = column;
     }
 
+    /**
+     * Returns the square index used by bit-set based board code:
+     * row * 8 + column, so A8 is 0 and H1 is 63.
+     */
+    public int toIndex() {
+        return row * 8 + column;
+    }
+
+    public static Position fromIndex(int index) {
+        return new Position(index / 8, index % 8);
+    }
+
     public static Position fromAlgebraic(String notation) {
         notation = notation.trim().toUpperCase();
         if (notation.length() != 2) return null;